@@ -0,0 +1,355 @@
+package com.github.bordertech.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure loading and refreshing a {@link DefaultConfiguration}.
+ * <p>
+ * The properties are generated into <code>target/jmh</code> and loaded as file resources, apart from the classpath
+ * duplicates which are loaded via a class loader.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+	/**
+	 * Create the generated properties.
+	 *
+	 * @param prefix the key prefix
+	 * @param count the number of properties
+	 * @return the generated properties
+	 */
+	static Properties generate(final String prefix, final int count) {
+		Properties props = new Properties();
+		for (int i = 0; i < count; i++) {
+			props.setProperty(prefix + ".property." + i, "value " + i + " with some text");
+		}
+		return props;
+	}
+
+	/**
+	 * Write the properties to a generated resource.
+	 *
+	 * @param name the resource name (in the benchmark directory)
+	 * @param props the properties to write
+	 * @return the resource name to load
+	 * @throws IOException if the properties could not be written
+	 */
+	static String writeResource(final String name, final Properties props) throws IOException {
+		File file = new File(LookupBenchmark.BENCH_DIR, name);
+		LookupBenchmark.writeFile(file, props);
+		return LookupBenchmark.BENCH_DIR.getPath() + "/" + name;
+	}
+
+	/**
+	 * @param state the generated properties
+	 * @return the loaded configuration
+	 */
+	@Benchmark
+	public DefaultConfiguration load(final LargeState state) {
+		return new DefaultConfiguration(state.resource);
+	}
+
+	/**
+	 * @param state the generated properties
+	 * @return the refreshed configuration
+	 */
+	@Benchmark
+	public DefaultConfiguration refresh(final LargeState state) {
+		state.config.refresh();
+		return state.config;
+	}
+
+	/**
+	 * @param state the generated include chain
+	 * @return the loaded configuration
+	 */
+	@Benchmark
+	public DefaultConfiguration loadIncludeChain(final IncludeState state) {
+		return new DefaultConfiguration(state.includeResource);
+	}
+
+	/**
+	 * @param state the generated include chain
+	 * @return the loaded configuration
+	 */
+	@Benchmark
+	public DefaultConfiguration loadIncludeAfterChain(final IncludeState state) {
+		return new DefaultConfiguration(state.includeAfterResource);
+	}
+
+	/**
+	 * @param state the classpath duplicates
+	 * @return the loaded configuration
+	 */
+	@Benchmark
+	public DefaultConfiguration loadClasspathDuplicates(final DuplicateState state) {
+		Thread thread = Thread.currentThread();
+		ClassLoader original = thread.getContextClassLoader();
+		thread.setContextClassLoader(state.loader);
+		try {
+			return new DefaultConfiguration(DuplicateState.RESOURCE);
+		} finally {
+			thread.setContextClassLoader(original);
+		}
+	}
+
+	/**
+	 * @param state the system properties to merge
+	 * @return the loaded configuration
+	 */
+	@Benchmark
+	public DefaultConfiguration loadSystemMerge(final MergeState state) {
+		return new DefaultConfiguration(state.resource);
+	}
+
+	/**
+	 * @param state the properties to substitute
+	 * @return the loaded configuration
+	 */
+	@Benchmark
+	public DefaultConfiguration loadSubstitution(final SubstitutionState state) {
+		return new DefaultConfiguration(state.resource);
+	}
+
+	/**
+	 * Large generated property set.
+	 */
+	@State(Scope.Benchmark)
+	public static class LargeState {
+
+		/**
+		 * The number of properties.
+		 */
+		@Param({"1000", "50000"})
+		private int keyCount;
+
+		/**
+		 * The generated resource.
+		 */
+		private String resource;
+
+		/**
+		 * The configuration to refresh.
+		 */
+		private DefaultConfiguration config;
+
+		/**
+		 * @throws IOException if the properties could not be written
+		 */
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			resource = writeResource("large-" + keyCount + ".properties", generate("bench.large", keyCount));
+			config = new DefaultConfiguration(resource);
+		}
+	}
+
+	/**
+	 * Chains of resources, each including the next one.
+	 */
+	@State(Scope.Benchmark)
+	public static class IncludeState {
+
+		/**
+		 * The number of properties in each resource.
+		 */
+		private static final int KEYS_PER_RESOURCE = 100;
+
+		/**
+		 * The length of the chains.
+		 */
+		@Param({"10", "100"})
+		private int depth;
+
+		/**
+		 * The first resource of the include chain.
+		 */
+		private String includeResource;
+
+		/**
+		 * The first resource of the includeAfter chain.
+		 */
+		private String includeAfterResource;
+
+		/**
+		 * @throws IOException if the properties could not be written
+		 */
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			includeResource = writeChain("include", DefaultConfiguration.INCLUDE);
+			includeAfterResource = writeChain("includeAfter", DefaultConfiguration.INCLUDE_AFTER);
+		}
+
+		/**
+		 * @param name the chain name
+		 * @param includeKey the key used to include the next resource
+		 * @return the first resource of the chain
+		 * @throws IOException if the properties could not be written
+		 */
+		private String writeChain(final String name, final String includeKey) throws IOException {
+			String next = null;
+			for (int i = depth - 1; i >= 0; i--) {
+				Properties props = generate("bench." + name + i, KEYS_PER_RESOURCE);
+				// Each resource also overrides a shared key
+				props.setProperty("bench." + name + ".shared", "value" + i);
+				if (next != null) {
+					props.setProperty(includeKey, next);
+				}
+				next = writeResource(name + "-" + depth + "-" + i + ".properties", props);
+			}
+			return next;
+		}
+	}
+
+	/**
+	 * The same resource found many times on the classpath.
+	 */
+	@State(Scope.Benchmark)
+	public static class DuplicateState {
+
+		/**
+		 * The duplicated resource name.
+		 */
+		static final String RESOURCE = "bench-duplicate.properties";
+
+		/**
+		 * The number of copies of the resource.
+		 */
+		@Param({"10", "100"})
+		private int duplicates;
+
+		/**
+		 * The class loader with the duplicates.
+		 */
+		private URLClassLoader loader;
+
+		/**
+		 * @throws IOException if the properties could not be written
+		 */
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			Properties props = generate("bench.duplicate", 1000);
+			URL[] urls = new URL[duplicates];
+			for (int i = 0; i < duplicates; i++) {
+				File dir = new File(LookupBenchmark.BENCH_DIR, "classpath-" + i);
+				LookupBenchmark.writeFile(new File(dir, RESOURCE), props);
+				urls[i] = dir.toURI().toURL();
+			}
+			loader = new URLClassLoader(urls, LoadBenchmark.class.getClassLoader());
+		}
+
+		/**
+		 * @throws IOException if the class loader could not be closed
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			loader.close();
+		}
+	}
+
+	/**
+	 * System properties and environment variables merged into the configuration.
+	 */
+	@State(Scope.Benchmark)
+	public static class MergeState {
+
+		/**
+		 * The number of system properties to merge.
+		 */
+		@Param({"100", "1000"})
+		private int systemCount;
+
+		/**
+		 * The generated resource.
+		 */
+		private String resource;
+
+		/**
+		 * @throws IOException if the properties could not be written
+		 */
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			Properties props = generate("bench.merge", 1000);
+			props.setProperty(DefaultConfiguration.USE_SYSTEM_PROPERTIES, "true");
+			props.setProperty(DefaultConfiguration.USE_OSENV_PROPERTIES, "true");
+			resource = writeResource("merge.properties", props);
+			for (int i = 0; i < systemCount; i++) {
+				System.setProperty("bench.system.property." + i, "value" + i);
+			}
+		}
+
+		/**
+		 * Remove the system properties.
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			for (int i = 0; i < systemCount; i++) {
+				System.clearProperty("bench.system.property." + i);
+			}
+		}
+	}
+
+	/**
+	 * Properties that refer to other properties.
+	 */
+	@State(Scope.Benchmark)
+	public static class SubstitutionState {
+
+		/**
+		 * The length of each chain of references.
+		 */
+		private static final int CHAIN = 10;
+
+		/**
+		 * The number of properties.
+		 */
+		@Param({"1000", "10000"})
+		private int keyCount;
+
+		/**
+		 * The generated resource.
+		 */
+		private String resource;
+
+		/**
+		 * @throws IOException if the properties could not be written
+		 */
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			Properties props = new Properties();
+			for (int i = 0; i < keyCount; i++) {
+				String key = "bench.substitution." + i;
+				if (i % CHAIN == 0) {
+					props.setProperty(key, "root" + i);
+				} else {
+					// Refer to the previous property in the chain
+					props.setProperty(key, "${bench.substitution." + (i - 1) + "}/" + i);
+				}
+			}
+			resource = writeResource("substitution-" + keyCount + ".properties", props);
+		}
+	}
+
+}
@@ -0,0 +1,256 @@
+package com.github.bordertech.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.configuration.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure the property lookups of {@link Config} and {@link DefaultConfiguration}.
+ * <p>
+ * The configuration is shared by all the benchmark threads. Use the JMH <code>-t</code> argument to run with more
+ * than one thread, for example <code>-Djmh.args="Lookup -t 8"</code>.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+	/**
+	 * The directory for the generated properties.
+	 */
+	static final File BENCH_DIR = new File("target/jmh");
+
+	/**
+	 * The profile used when the profile is enabled.
+	 */
+	private static final String PROFILE = "bench";
+
+	/**
+	 * The number of groups the properties are spread over.
+	 */
+	private static final int GROUPS = 10;
+
+	/**
+	 * The number of properties of each kind.
+	 */
+	@Param({"100", "10000"})
+	private int keyCount;
+
+	/**
+	 * True to set a profile. Every tenth property has a profile value.
+	 */
+	@Param({"false", "true"})
+	private boolean profile;
+
+	/**
+	 * True to set a polled touchfile, which is checked by {@link Config#getInstance()}.
+	 */
+	@Param({"false", "true"})
+	private boolean touchfile;
+
+	/**
+	 * The configuration to look up.
+	 */
+	private DefaultConfiguration config;
+
+	/**
+	 * The keys to look up.
+	 */
+	private String[] keys;
+
+	/**
+	 * The flag keys to look up.
+	 */
+	private String[] flagKeys;
+
+	/**
+	 * The number keys to look up.
+	 */
+	private String[] numberKeys;
+
+	/**
+	 * The list keys to look up.
+	 */
+	private String[] listKeys;
+
+	/**
+	 * The subset prefixes.
+	 */
+	private String[] prefixes;
+
+	/**
+	 * Generate the properties and load them into the configuration.
+	 *
+	 * @throws IOException if the properties could not be written
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		keys = new String[keyCount];
+		flagKeys = new String[keyCount];
+		numberKeys = new String[keyCount];
+		listKeys = new String[keyCount];
+		prefixes = new String[GROUPS];
+		for (int i = 0; i < GROUPS; i++) {
+			prefixes[i] = "bench.group" + i + ".";
+		}
+
+		Properties props = new Properties();
+		for (int i = 0; i < keyCount; i++) {
+			String prefix = prefixes[i % GROUPS];
+			keys[i] = prefix + "property." + i;
+			flagKeys[i] = prefix + "flag." + i;
+			numberKeys[i] = prefix + "number." + i;
+			listKeys[i] = prefix + "list." + i;
+			props.setProperty(keys[i], "value" + i);
+			props.setProperty(flagKeys[i], String.valueOf(i % 2 == 0));
+			props.setProperty(numberKeys[i], String.valueOf(i));
+			props.setProperty(listKeys[i], "a" + i + ", b" + i + ", c" + i);
+			if (profile && i % 10 == 0) {
+				props.setProperty(keys[i] + "." + PROFILE, "profile" + i);
+				props.setProperty(numberKeys[i] + "." + PROFILE, String.valueOf(-i));
+			}
+		}
+		if (profile) {
+			props.setProperty(DefaultConfiguration.PROFILE_PROPERTY, PROFILE);
+		}
+		if (touchfile) {
+			File file = new File(BENCH_DIR, "lookup.touch");
+			writeFile(file, new Properties());
+			props.setProperty("bordertech.config.touchfile", file.getPath());
+		}
+
+		String resource = "target/jmh/lookup-" + keyCount + ".properties";
+		writeFile(new File(resource), props);
+		config = new DefaultConfiguration(resource);
+		Config.setConfiguration(config);
+	}
+
+	/**
+	 * Restore the default configuration.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		Config.reset();
+	}
+
+	/**
+	 * Write the properties to a file.
+	 *
+	 * @param file the file to write
+	 * @param props the properties to write
+	 * @throws IOException if the file could not be written
+	 */
+	static void writeFile(final File file, final Properties props) throws IOException {
+		Files.createDirectories(file.getParentFile().toPath());
+		try (OutputStream out = Files.newOutputStream(file.toPath())) {
+			props.store(out, null);
+		}
+	}
+
+	/**
+	 * @return the current configuration
+	 */
+	@Benchmark
+	public Configuration getInstance() {
+		return Config.getInstance();
+	}
+
+	/**
+	 * @param cursor the next key for the thread
+	 * @return the property value
+	 */
+	@Benchmark
+	public String get(final Cursor cursor) {
+		return config.get(keys[cursor.next(keyCount)]);
+	}
+
+	/**
+	 * @param cursor the next key for the thread
+	 * @return the property value read via the current configuration
+	 */
+	@Benchmark
+	public String getInstanceGetString(final Cursor cursor) {
+		return Config.getInstance().getString(keys[cursor.next(keyCount)]);
+	}
+
+	/**
+	 * @param cursor the next key for the thread
+	 * @return the flag value
+	 */
+	@Benchmark
+	public boolean getBoolean(final Cursor cursor) {
+		return config.getBoolean(flagKeys[cursor.next(keyCount)]);
+	}
+
+	/**
+	 * @param cursor the next key for the thread
+	 * @return the number value
+	 */
+	@Benchmark
+	public int getInt(final Cursor cursor) {
+		return config.getInt(numberKeys[cursor.next(keyCount)]);
+	}
+
+	/**
+	 * @param cursor the next key for the thread
+	 * @return the list values
+	 */
+	@Benchmark
+	public String[] getStringArray(final Cursor cursor) {
+		return config.getStringArray(listKeys[cursor.next(keyCount)]);
+	}
+
+	/**
+	 * @param cursor the next key for the thread
+	 * @return a property value read via a subset
+	 */
+	@Benchmark
+	public String subset(final Cursor cursor) {
+		int index = cursor.next(keyCount);
+		return config.subset(prefixes[index % GROUPS]).getString(keys[index]);
+	}
+
+	/**
+	 * The next key to look up, per benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		/**
+		 * The next key index.
+		 */
+		private int index;
+
+		/**
+		 * @param count the number of keys
+		 * @return the next key index
+		 */
+		int next(final int count) {
+			int next = index;
+			index = (next + 1) % count;
+			return next;
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.github.bordertech.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare looking up a property with a profile set via the profile resolved view in {@link ConfigurationSnapshot},
+ * against the previous lookup that built the profile key and checked the backing twice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProfileLookupBenchmark {
+
+	/**
+	 * The profile used for the lookups.
+	 */
+	private static final String PROFILE = "bench";
+
+	/**
+	 * The number of properties.
+	 */
+	@Param({"100", "10000"})
+	private int keyCount;
+
+	/**
+	 * The backing used by the previous lookup.
+	 */
+	private Map<String, String> backing;
+
+	/**
+	 * The snapshot with the profile resolved view.
+	 */
+	private ConfigurationSnapshot snapshot;
+
+	/**
+	 * The keys to look up.
+	 */
+	private String[] keys;
+
+	/**
+	 * The next key to look up.
+	 */
+	private int index;
+
+	/**
+	 * Create the properties. Every tenth property has a profile value.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		backing = new HashMap<>();
+		keys = new String[keyCount];
+		for (int i = 0; i < keyCount; i++) {
+			String key = "bench.property." + i;
+			keys[i] = key;
+			backing.put(key, "value" + i);
+			if (i % 10 == 0) {
+				backing.put(key + "." + PROFILE, "profile" + i);
+			}
+		}
+		snapshot = new ConfigurationSnapshot(new HashMap<>(backing), PROFILE);
+	}
+
+	/**
+	 * @return the next key to look up
+	 */
+	private String nextKey() {
+		String key = keys[index];
+		index = (index + 1) % keys.length;
+		return key;
+	}
+
+	/**
+	 * @return the value via the previous lookup
+	 */
+	@Benchmark
+	public String previousLookup() {
+		String key = nextKey();
+		String result = backing.get(key + "." + PROFILE);
+		if (result != null) {
+			return result;
+		}
+		return backing.get(key);
+	}
+
+	/**
+	 * @return the value via the profile resolved view
+	 */
+	@Benchmark
+	public String resolvedLookup() {
+		return snapshot.get(nextKey());
+	}
+
+	/**
+	 * @return the flag via the profile resolved view
+	 */
+	@Benchmark
+	public boolean resolvedBoolean() {
+		return snapshot.getBoolean(nextKey());
+	}
+
+}
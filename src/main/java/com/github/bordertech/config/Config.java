@@ -5,14 +5,21 @@ import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.MapConfiguration;
 import org.apache.commons.lang.StringUtils;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.ServiceLoader;
-import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * The Config class is the central access point to the configuration mechanism, and is used to read or modify the
@@ -41,6 +48,34 @@ import java.util.Set;
  * {@link #getInstance()} is called. To avoid excessive IO an interval (in milli seconds) between checks can be set via
  * <code>bordertech.config.touchfile.interval</code> and defaults to <code>10000</code>.
  * </p>
+ * <p>
+ * Callers of {@link #getInstance()} never block on a touchfile check. Only one caller per interval checks the file and,
+ * if it has changed, only that caller reloads the configuration. All other callers continue to use the current
+ * configuration until the new one has been published. Setting <code>bordertech.config.reload.background</code> to
+ * true in <code>bordertech-config.properties</code> (see {@link InitHelper}) reloads the configuration on a background
+ * thread instead, so the caller that found the change also continues to use the current configuration.
+ * </p>
+ * <p>
+ * If the touchfile changes again while a reload is running, the configuration is reloaded once more when the running
+ * reload has finished.
+ * </p>
+ * <p>
+ * Setting <code>bordertech.config.touchfile.watch</code> to true watches the touchfile on a background thread instead.
+ * The configuration is reloaded on that thread as soon as the touchfile changes and {@link #getInstance()} does not
+ * check the touchfile at all.
+ * </p>
+ * <p>
+ * Properties read on hot paths can use a {@link ConfigKey} handle, for example {@link #intHandle(String, int)}. The
+ * handle holds the converted value and is refreshed when the listeners are notified of a change to its property.
+ * </p>
+ * <p>
+ * Listeners are notified on the thread that changed the configuration. Setting
+ * <code>bordertech.config.listeners.async</code> to true notifies the listeners on background threads instead (at most
+ * <code>bordertech.config.listeners.async.threads</code>, which defaults to <code>4</code> and is at least
+ * <code>1</code>). Each listener still receives its events in order. Events waiting for a slow listener are coalesced,
+ * so a listener has at most one waiting event for each property, and none if the property has changed back. The number of threads is read once, when the listeners are first notified on background
+ * threads, and later changes to it are ignored.
+ * </p>
  *
  * @author Joshua Barclay
  * @author Jonathan Austin
@@ -58,19 +93,46 @@ public final class Config {
 	private static final Object LOCK = new Object();
 
 	/**
-	 * Contains the complete set of property change listeners that have registered with this class.
+	 * Contains the complete set of property change listeners that have registered with this class. The list is copied
+	 * when it changes, so it can be notified while listeners are added or removed.
+	 */
+	private static final List<ListenerRegistration> PROPERTY_CHANGE_LISTENERS = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The properties when the listeners were last notified, used to find the changed properties. Only kept while
+	 * there are listeners registered for keys with a prefix.
 	 */
-	private static final Set<PropertyChangeListener> PROPERTY_CHANGE_LISTENERS = new HashSet<>();
+	private static final AtomicReference<NotifiedProperties> NOTIFIED_PROPERTIES = new AtomicReference<>();
+
+	/**
+	 * Flag to make sure only one thread reloads the configuration when the touchfile changes.
+	 */
+	private static final AtomicBoolean RELOADING = new AtomicBoolean();
+
+	/**
+	 * Flag set when the touchfile has changed and the configuration has not yet been reloaded for the change.
+	 */
+	private static final AtomicBoolean RELOAD_PENDING = new AtomicBoolean();
 
 	/**
 	 * The current configuration.
 	 */
-	private static Configuration configuration;
+	private static final AtomicReference<Configuration> CONFIGURATION = new AtomicReference<>();
+
+	/**
+	 * Notifies the listeners on background threads (created when first needed).
+	 */
+	private static final AtomicReference<ListenerExecutor> LISTENER_EXECUTOR = new AtomicReference<>();
 
 	/**
 	 * Touchfile (if configured).
 	 */
-	private static Touchfile touchfile;
+	private static final AtomicReference<Touchfile> TOUCHFILE = new AtomicReference<>();
+
+	/**
+	 * Touchfile watched on a background thread (if configured).
+	 */
+	private static final AtomicReference<Touchfile> WATCHED_TOUCHFILE = new AtomicReference<>();
 
 	static {
 		loadConfiguration();
@@ -87,14 +149,15 @@ public final class Config {
 	 */
 	public static Configuration getInstance() {
 		// If a touchfile has been set, check if it has changed and reload if necessary
-		if (touchfile != null) {
-			synchronized (LOCK) {
-				if (touchfile.hasChanged()) {
-					loadConfiguration();
-				}
+		Touchfile touchfile = TOUCHFILE.get();
+		if (touchfile != null && touchfile.hasChanged()) {
+			if (InitHelper.RELOAD_BACKGROUND) {
+				reloadInBackground();
+			} else {
+				reloadConfiguration();
 			}
 		}
-		return configuration;
+		return CONFIGURATION.get();
 	}
 
 	/**
@@ -117,7 +180,7 @@ public final class Config {
 	 */
 	public static void setConfiguration(final Configuration configuration) {
 		synchronized (LOCK) {
-			Config.configuration = configuration;
+			CONFIGURATION.set(configuration);
 			configTouchfile();
 			notifyListeners();
 		}
@@ -148,28 +211,72 @@ public final class Config {
 	/**
 	 * This method notifies all the {@link PropertyChangeListener}s that have registered with this object that a change
 	 * has occurred.
+	 * <p>
+	 * Listeners registered via {@link #addPropertyChangeListener(PropertyChangeListener)} receive a single event with
+	 * no property name. Listeners registered for a key prefix receive an event for each property with the prefix that
+	 * has been added, changed or removed since the listeners were last notified.
+	 * </p>
 	 */
 	public static void notifyListeners() {
+		List<PropertyChangeEvent> changes = findChangedProperties();
+
 		// The trivial case is when there are no listeners.
 		if (PROPERTY_CHANGE_LISTENERS.isEmpty()) {
 			return;
 		}
 
-		// A possible improvement here would be to verify that one or more of the properties has actually changed due to
-		// the refresh.
-		//
-		// If we get here, then there is at least one listener who wants to be notified when a refresh occurs. The first
-		// step in this notification process is to create the PropertyChangeEvent object that will be sent to each of
-		// the registered PropertyChangeListeners.
-		// <code>PropertyChangeEvent event = new PropertyChangeEvent(this, "propertiesRefresh", null, null);</code>
-		//
-		// Finally, iterate through the complete set of PropertyChangeListeners and notify them that a change has
-		// occurred.
-		for (PropertyChangeListener listener : PROPERTY_CHANGE_LISTENERS) {
-			listener.propertyChange(null);
+		boolean async = isListenersAsync();
+		PropertyChangeEvent event = new PropertyChangeEvent(Config.class, null, null, null);
+
+		boolean collected = false;
+		for (ListenerRegistration registration : PROPERTY_CHANGE_LISTENERS) {
+			PropertyChangeListener listener = registration.getListener();
+			if (listener == null) {
+				// Weak listener no longer in use
+				collected = true;
+			} else if (registration.prefix == null) {
+				notifyListener(listener, event, async);
+			} else {
+				for (PropertyChangeEvent change : changes) {
+					if (registration.matches(change.getPropertyName())) {
+						notifyListener(listener, change, async);
+					}
+				}
+			}
+		}
+		if (collected) {
+			PROPERTY_CHANGE_LISTENERS.removeIf(registration -> registration.getListener() == null);
 		}
 	}
 
+	/**
+	 * @param listener the listener to notify
+	 * @param event the event
+	 * @param async true to notify the listener on a background thread
+	 */
+	private static void notifyListener(final PropertyChangeListener listener, final PropertyChangeEvent event, final boolean async) {
+		if (async) {
+			getListenerExecutor().dispatch(listener, event);
+		} else {
+			listener.propertyChange(event);
+		}
+	}
+
+	/**
+	 * @return the executor used to notify the listeners on background threads
+	 */
+	private static ListenerExecutor getListenerExecutor() {
+		ListenerExecutor executor = LISTENER_EXECUTOR.get();
+		if (executor == null) {
+			// No threads are started until a listener is notified, so an executor that loses the race is discarded
+			executor = new ListenerExecutor(getListenerThreads());
+			if (!LISTENER_EXECUTOR.compareAndSet(null, executor)) {
+				executor = LISTENER_EXECUTOR.get();
+			}
+		}
+		return executor;
+	}
+
 	/**
 	 * Registers a property change listener to receive notifications of configuration changes. Note that the listener
 	 * will only be notified when this class knows that the configuration has changed. No notification is sent if a
@@ -179,7 +286,247 @@ public final class Config {
 	 * @param listener the listener to add.
 	 */
 	public static void addPropertyChangeListener(final PropertyChangeListener listener) {
-		PROPERTY_CHANGE_LISTENERS.add(listener);
+		addListener(new ListenerRegistration(null, listener, false, false));
+	}
+
+	/**
+	 * Registers a property change listener that is only weakly referenced, so it does not stop the listener being
+	 * garbage collected. The listener is removed once it has been garbage collected.
+	 *
+	 * @param listener the listener to add.
+	 * @see #addPropertyChangeListener(PropertyChangeListener)
+	 * @since 1.0.9
+	 */
+	public static void addWeakPropertyChangeListener(final PropertyChangeListener listener) {
+		addListener(new ListenerRegistration(null, listener, true, false));
+	}
+
+	/**
+	 * Registers a property change listener to receive an event for each property, with a key starting with the prefix,
+	 * that has been added, changed or removed. The event holds the property key and its old and new values, which are
+	 * null if the property was added or removed.
+	 * <p>
+	 * The changes are found when the listeners are notified (see {@link #addPropertyChangeListener(PropertyChangeListener)}
+	 * for when this happens) by comparing the properties against the properties when the listeners were last notified.
+	 * </p>
+	 *
+	 * @param prefix the key prefix, or an empty String for all properties
+	 * @param listener the listener to add.
+	 * @since 1.0.9
+	 */
+	public static void addPropertyChangeListener(final String prefix, final PropertyChangeListener listener) {
+		addListener(new ListenerRegistration(prefix, listener, false, false));
+	}
+
+	/**
+	 * Registers a property change listener for keys with a prefix that is only weakly referenced, so it does not stop
+	 * the listener being garbage collected. The listener is removed once it has been garbage collected.
+	 *
+	 * @param prefix the key prefix, or an empty String for all properties
+	 * @param listener the listener to add.
+	 * @see #addPropertyChangeListener(String, PropertyChangeListener)
+	 * @since 1.0.9
+	 */
+	public static void addWeakPropertyChangeListener(final String prefix, final PropertyChangeListener listener) {
+		addListener(new ListenerRegistration(prefix, listener, true, false));
+	}
+
+	/**
+	 * Removes a property change listener, including any registrations of the listener for a key prefix.
+	 *
+	 * @param listener the listener to remove.
+	 * @since 1.0.9
+	 */
+	public static void removePropertyChangeListener(final PropertyChangeListener listener) {
+		PROPERTY_CHANGE_LISTENERS.removeIf(registration -> {
+			PropertyChangeListener registered = registration.getListener();
+			return registered == null || registered.equals(listener);
+		});
+	}
+
+	/**
+	 * Add a listener registration, unless the listener is already registered with the same prefix or key.
+	 *
+	 * @param registration the listener registration
+	 */
+	private static void addListener(final ListenerRegistration registration) {
+		if (registration.prefix != null) {
+			// Keep the current properties to compare against
+			NOTIFIED_PROPERTIES.compareAndSet(null, new NotifiedProperties(CONFIGURATION.get()));
+		}
+		synchronized (PROPERTY_CHANGE_LISTENERS) {
+			PropertyChangeListener listener = registration.getListener();
+			for (ListenerRegistration existing : PROPERTY_CHANGE_LISTENERS) {
+				if (Objects.equals(existing.prefix, registration.prefix) && existing.exact == registration.exact
+						&& listener.equals(existing.getListener())) {
+					return;
+				}
+			}
+			PROPERTY_CHANGE_LISTENERS.add(registration);
+		}
+	}
+
+	/**
+	 * Create a handle to a String property.
+	 *
+	 * @param key the property key
+	 * @param defaultValue the value to use if the property is not set
+	 * @return the property handle
+	 */
+	public static ConfigKey<String> stringHandle(final String key, final String defaultValue) {
+		return register(key, config -> config.getString(key, defaultValue));
+	}
+
+	/**
+	 * Create a handle to an int property.
+	 *
+	 * @param key the property key
+	 * @param defaultValue the value to use if the property is not set
+	 * @return the property handle
+	 */
+	public static ConfigKey<Integer> intHandle(final String key, final int defaultValue) {
+		return register(key, config -> config.getInt(key, defaultValue));
+	}
+
+	/**
+	 * Create a handle to a long property.
+	 *
+	 * @param key the property key
+	 * @param defaultValue the value to use if the property is not set
+	 * @return the property handle
+	 */
+	public static ConfigKey<Long> longHandle(final String key, final long defaultValue) {
+		return register(key, config -> config.getLong(key, defaultValue));
+	}
+
+	/**
+	 * Create a handle to a boolean property.
+	 *
+	 * @param key the property key
+	 * @param defaultValue the value to use if the property is not set
+	 * @return the property handle
+	 */
+	public static ConfigKey<Boolean> booleanHandle(final String key, final boolean defaultValue) {
+		return register(key, config -> config.getBoolean(key, defaultValue));
+	}
+
+	/**
+	 * Create a handle to a property of any type. The property is read as a String and converted, for example
+	 * <code>Config.handle("timeout", Duration.ofSeconds(5), Duration::parse)</code>.
+	 *
+	 * @param key the property key
+	 * @param defaultValue the value to use if the property is not set
+	 * @param converter converts the property value
+	 * @param <T> the property type
+	 * @return the property handle
+	 */
+	public static <T> ConfigKey<T> handle(final String key, final T defaultValue, final Function<String, T> converter) {
+		return register(key, config -> {
+			String value = config.getString(key);
+			return value == null ? defaultValue : converter.apply(value);
+		});
+	}
+
+	/**
+	 * Create a property handle and register it to be refreshed when the configuration changes.
+	 *
+	 * @param key the property key
+	 * @param resolver reads the property value from the configuration
+	 * @param <T> the property type
+	 * @return the property handle
+	 */
+	private static <T> ConfigKey<T> register(final String key, final Function<Configuration, T> resolver) {
+		Configuration config = getInstance();
+		ConfigKey<T> handle = new ConfigKey<>(key, resolver, resolver.apply(config));
+		// The handle is only refreshed for its own key, and no longer once the caller stops using it
+		addListener(new ListenerRegistration(key, handle, true, true));
+		// Pick up a configuration loaded while the handle was being registered
+		if (CONFIGURATION.get() != config) {
+			handle.refresh();
+		}
+		return handle;
+	}
+
+	/**
+	 * Find the properties that have changed since the listeners were last notified.
+	 *
+	 * @return the property change events, empty if there are no listeners registered for a key prefix
+	 */
+	private static List<PropertyChangeEvent> findChangedProperties() {
+		if (PROPERTY_CHANGE_LISTENERS.stream().allMatch(registration -> registration.prefix == null)) {
+			NOTIFIED_PROPERTIES.set(null);
+			return Collections.emptyList();
+		}
+
+		NotifiedProperties current = new NotifiedProperties(CONFIGURATION.get());
+		NotifiedProperties previous = NOTIFIED_PROPERTIES.getAndSet(current);
+		if (previous == null) {
+			return Collections.emptyList();
+		}
+		return current.findChanges(previous);
+	}
+
+	/**
+	 * @param previous the properties when the listeners were last notified
+	 * @param current the current properties
+	 * @return the property change events for the properties that have been added, changed or removed
+	 */
+	private static List<PropertyChangeEvent> findChanges(final Map<String, Object> previous, final Map<String, Object> current) {
+		List<PropertyChangeEvent> changes = new ArrayList<>();
+		for (Map.Entry<String, Object> entry : current.entrySet()) {
+			String key = entry.getKey();
+			Object oldValue = previous.get(key);
+			if (!Objects.equals(oldValue, entry.getValue())) {
+				changes.add(new PropertyChangeEvent(Config.class, key, oldValue, entry.getValue()));
+			}
+		}
+		for (Map.Entry<String, Object> entry : previous.entrySet()) {
+			if (!current.containsKey(entry.getKey())) {
+				changes.add(new PropertyChangeEvent(Config.class, entry.getKey(), entry.getValue(), null));
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Reload the configuration on a background thread, so the caller does not wait for the reload. If a reload is
+	 * already running, it reloads again once it has finished.
+	 */
+	private static void reloadInBackground() {
+		RELOAD_PENDING.set(true);
+		if (RELOADING.get()) {
+			return;
+		}
+		Thread thread = new Thread(Config::runPendingReloads, "bordertech-config-reload");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Reload the configuration after the touchfile has changed. Only one thread performs the reload, any other thread
+	 * continues to use the current configuration. If a reload is already running, it reloads again once it has
+	 * finished, so the change is not lost.
+	 */
+	private static void reloadConfiguration() {
+		RELOAD_PENDING.set(true);
+		runPendingReloads();
+	}
+
+	/**
+	 * Reload the configuration until there are no pending changes, unless another thread is already reloading it.
+	 */
+	private static void runPendingReloads() {
+		// The pending flag is checked again after each reload, so a change made while reloading is picked up
+		while (RELOAD_PENDING.get() && RELOADING.compareAndSet(false, true)) {
+			try {
+				RELOAD_PENDING.set(false);
+				synchronized (LOCK) {
+					loadConfiguration();
+				}
+			} finally {
+				RELOADING.set(false);
+			}
+		}
 	}
 
 	/**
@@ -190,7 +537,7 @@ public final class Config {
 		if (config == null) {
 			config = getDefaultConfiguration();
 		}
-		Config.configuration = config;
+		CONFIGURATION.set(config);
 		configTouchfile();
 		notifyListeners();
 	}
@@ -201,9 +548,43 @@ public final class Config {
 	private static void configTouchfile() {
 		String file = getTouchFileName();
 		if (StringUtils.isEmpty(file)) {
-			touchfile = null;
+			TOUCHFILE.set(null);
+			stopWatchedTouchfile();
+		} else if (isTouchFileWatch()) {
+			TOUCHFILE.set(null);
+			watchTouchfile(file, getTouchFileInterval());
 		} else {
-			touchfile = new Touchfile(file, getTouchFileInterval());
+			TOUCHFILE.set(new Touchfile(file, getTouchFileInterval()));
+			stopWatchedTouchfile();
+		}
+	}
+
+	/**
+	 * Watch the touchfile on a background thread. An existing watcher on the same file is kept.
+	 *
+	 * @param file the touch file name
+	 * @param interval the touch file interval (in milli seconds)
+	 */
+	private static void watchTouchfile(final String file, final long interval) {
+		Touchfile current = WATCHED_TOUCHFILE.get();
+		if (current != null && current.getFilename().equals(file) && current.getCheckInterval() == interval) {
+			return;
+		}
+		Touchfile touchfile = new Touchfile(file, interval);
+		touchfile.watch(Config::reloadConfiguration);
+		if (current != null) {
+			current.stop();
+		}
+		WATCHED_TOUCHFILE.set(touchfile);
+	}
+
+	/**
+	 * Stop the watched touchfile (if any).
+	 */
+	private static void stopWatchedTouchfile() {
+		Touchfile current = WATCHED_TOUCHFILE.getAndSet(null);
+		if (current != null) {
+			current.stop();
 		}
 	}
 
@@ -211,14 +592,153 @@ public final class Config {
 	 * @return the touch file name
 	 */
 	private static String getTouchFileName() {
-		return configuration.getString("bordertech.config.touchfile");
+		return CONFIGURATION.get().getString("bordertech.config.touchfile");
+	}
+
+	/**
+	 * @return true if the touch file is watched on a background thread
+	 */
+	private static boolean isTouchFileWatch() {
+		return CONFIGURATION.get().getBoolean("bordertech.config.touchfile.watch", false);
 	}
 
 	/**
 	 * @return the touch file interval (in milli seconds)
 	 */
 	private static long getTouchFileInterval() {
-		return configuration.getLong("bordertech.config.touchfile.interval", 10000);
+		return CONFIGURATION.get().getLong("bordertech.config.touchfile.interval", 10000);
+	}
+
+	/**
+	 * A registered property change listener.
+	 */
+	private static final class ListenerRegistration {
+
+		/**
+		 * The key prefix (or the key if exact), or null to be notified once for all changes.
+		 */
+		private final String prefix;
+
+		/**
+		 * True if only notified of changes to the key, rather than all keys with the prefix.
+		 */
+		private final boolean exact;
+
+		/**
+		 * The listener if strongly referenced.
+		 */
+		private final PropertyChangeListener listener;
+
+		/**
+		 * The listener if weakly referenced.
+		 */
+		private final WeakReference<PropertyChangeListener> weakListener;
+
+		/**
+		 * @param prefix the key prefix (or the key if exact), or null to be notified once for all changes
+		 * @param listener the listener
+		 * @param weak true if the listener is weakly referenced
+		 * @param exact true if only notified of changes to the key, rather than all keys with the prefix
+		 */
+		ListenerRegistration(final String prefix, final PropertyChangeListener listener, final boolean weak,
+				final boolean exact) {
+			this.prefix = prefix;
+			this.exact = exact;
+			this.listener = weak ? null : listener;
+			this.weakListener = weak ? new WeakReference<>(listener) : null;
+		}
+
+		/**
+		 * @return the listener, or null if a weak listener has been garbage collected
+		 */
+		PropertyChangeListener getListener() {
+			return weakListener == null ? listener : weakListener.get();
+		}
+
+		/**
+		 * @param name the changed property key
+		 * @return true if the listener is registered for the property
+		 */
+		boolean matches(final String name) {
+			return exact ? name.equals(prefix) : name.startsWith(prefix);
+		}
+	}
+
+	/**
+	 * The properties of a configuration when the listeners were notified. For a {@link DefaultConfiguration} the
+	 * snapshot is kept rather than a copy of its values, so the changed properties are found without substituting the
+	 * values that are substituted lazily.
+	 */
+	private static final class NotifiedProperties {
+
+		/**
+		 * The snapshot of a {@link DefaultConfiguration}, or null if another configuration.
+		 */
+		private final ConfigurationSnapshot snapshot;
+
+		/**
+		 * The properties of another configuration, or null if a {@link DefaultConfiguration}.
+		 */
+		private final Map<String, Object> properties;
+
+		/**
+		 * @param config the configuration
+		 */
+		NotifiedProperties(final Configuration config) {
+			if (config instanceof DefaultConfiguration) {
+				snapshot = ((DefaultConfiguration) config).getSnapshot();
+				properties = null;
+			} else {
+				snapshot = null;
+				properties = new HashMap<>();
+				for (Iterator<String> keys = config.getKeys(); keys.hasNext();) {
+					String key = keys.next();
+					properties.put(key, config.getProperty(key));
+				}
+			}
+		}
+
+		/**
+		 * @param previous the properties when the listeners were last notified
+		 * @return the property change events for the properties that have been added, changed or removed
+		 */
+		List<PropertyChangeEvent> findChanges(final NotifiedProperties previous) {
+			if (snapshot == null || previous.snapshot == null) {
+				return Config.findChanges(previous.getProperties(), getProperties());
+			}
+			// Only the values of the changed properties are substituted
+			List<PropertyChangeEvent> changes = new ArrayList<>();
+			for (String key : snapshot.findChangedKeys(previous.snapshot)) {
+				String oldValue = previous.snapshot.get(key);
+				String newValue = snapshot.get(key);
+				if (!Objects.equals(oldValue, newValue)) {
+					changes.add(new PropertyChangeEvent(Config.class, key, oldValue, newValue));
+				}
+			}
+			return changes;
+		}
+
+		/**
+		 * @return the properties, which must not be modified
+		 */
+		private Map<String, Object> getProperties() {
+			return properties == null ? Collections.unmodifiableMap(snapshot.getResolved()) : properties;
+		}
+	}
+
+	/**
+	 * @return true if the listeners are notified on background threads
+	 */
+	private static boolean isListenersAsync() {
+		return CONFIGURATION.get().getBoolean("bordertech.config.listeners.async", false);
+	}
+
+	/**
+	 * @return the maximum number of threads used to notify the listeners, which is only read when the executor is
+	 * created
+	 */
+	private static int getListenerThreads() {
+		return CONFIGURATION.get().getInt("bordertech.config.listeners.async.threads", 4);
 	}
 
 	/**
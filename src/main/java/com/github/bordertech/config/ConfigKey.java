@@ -0,0 +1,113 @@
+package com.github.bordertech.config;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.SimpleLog;
+
+/**
+ * A handle to a typed configuration property.
+ * <p>
+ * The property is read and converted once when the handle is created and again each time {@link Config} notifies its
+ * listeners that the property has changed. Changes to other properties, including properties with keys that start
+ * with the property key, do not refresh the handle. Reading the value via {@link #get()} only reads a field, so handles
+ * suit properties that are read on hot paths.
+ * </p>
+ * <pre>
+ * private static final ConfigKey&lt;Integer&gt; POOL_SIZE = Config.intHandle("pool.size", 10);
+ * ...
+ * int size = POOL_SIZE.get();
+ * </pre>
+ * <p>
+ * As {@link #get()} does not call {@link Config#getInstance()}, a polled touchfile is not checked when a handle is
+ * read. Handles are refreshed once the configuration is reloaded, so use a watched touchfile (see {@link Config}) when
+ * handles must pick up touchfile changes without other callers of {@link Config#getInstance()}.
+ * </p>
+ * <p>
+ * If the property can not be converted after a change, the handle logs the error and keeps its current value.
+ * </p>
+ *
+ * @param <T> the property type
+ * @since 1.0.9
+ * @see Config#handle(String, Object, Function)
+ */
+public final class ConfigKey<T> implements PropertyChangeListener {
+
+	/**
+	 * Logger for conversion errors.
+	 */
+	private static final Log LOG = new SimpleLog("ConfigKey");
+
+	/**
+	 * The property key.
+	 */
+	private final String key;
+
+	/**
+	 * Reads the property value from the configuration.
+	 */
+	private final Function<Configuration, T> resolver;
+
+	/**
+	 * The current property value.
+	 */
+	private final AtomicReference<T> value = new AtomicReference<>();
+
+	/**
+	 * @param key the property key
+	 * @param resolver reads the property value from the configuration
+	 * @param initial the initial property value
+	 */
+	ConfigKey(final String key, final Function<Configuration, T> resolver, final T initial) {
+		this.key = key;
+		this.resolver = resolver;
+		value.set(initial);
+	}
+
+	/**
+	 * @return the property key
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the current property value
+	 */
+	public T get() {
+		return value.get();
+	}
+
+	/**
+	 * Read the property value again from the current configuration.
+	 */
+	public void refresh() {
+		try {
+			value.set(resolver.apply(Config.getInstance()));
+		} catch (RuntimeException e) {
+			LOG.warn("Could not refresh property [" + key + "]. Keeping value [" + value.get() + "].", e);
+		}
+	}
+
+	/**
+	 * Refresh the property value when the configuration changes.
+	 *
+	 * @param evt the change event
+	 */
+	@Override
+	public void propertyChange(final PropertyChangeEvent evt) {
+		refresh();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return key + "=" + value.get();
+	}
+
+}
@@ -0,0 +1,548 @@
+package com.github.bordertech.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * An immutable snapshot of the properties held by a {@link DefaultConfiguration}.
+ * <p>
+ * All the state used to look up a property lives in the snapshot. When the properties change a new snapshot is built
+ * and published in one step, so readers never see a partially loaded or partially changed set of properties and never
+ * have to lock.
+ * </p>
+ * <p>
+ * When a profile is set, the profile suffixed values are overlaid onto their base keys once when the snapshot is
+ * created. Looking up a property is then a single hash lookup and does not build the profile key.
+ * </p>
+ * <p>
+ * Prefix queries use a sorted index of the properties, which is built the first time it is needed.
+ * </p>
+ * <p>
+ * With lazy substitution, the <code>${...}</code> references in a value are only resolved the first time the value is
+ * looked up, and the resolved value is kept for the life of the snapshot. The sorted index is built over the values
+ * before substitution, so a prefix query only resolves the values with the prefix. The keys, and the changes from
+ * another snapshot, are also found without resolving any values. Views of all the properties resolve all the values
+ * the first time they are needed.
+ * </p>
+ *
+ * @since 1.0.9
+ */
+final class ConfigurationSnapshot {
+
+	/**
+	 * A snapshot with no properties.
+	 */
+	static final ConfigurationSnapshot EMPTY = new ConfigurationSnapshot(Collections.emptyMap(), null);
+
+	/**
+	 * The property values (not substituted if lazy substitution).
+	 */
+	private final Map<String, String> backing;
+
+	/**
+	 * The property values with the profile values overlaid onto their base keys (not substituted if lazy
+	 * substitution).
+	 */
+	private final Map<String, String> resolved;
+
+	/**
+	 * Resolves the references in the property values, or null if not lazy substitution.
+	 */
+	private final PropertySubstitutor substitutor;
+
+	/**
+	 * The backing key of each resolved key with a value that contains references, or null if not lazy substitution.
+	 */
+	private final Map<String, String> lazyKeys;
+
+	/**
+	 * The substituted values, by backing key (lazy substitution).
+	 */
+	private final Map<String, String> substitutedCache = new ConcurrentHashMap<>();
+
+	/**
+	 * The substituted property values (lazy substitution, built when first needed).
+	 */
+	private final AtomicReference<Map<String, String>> substitutedBacking = new AtomicReference<>();
+
+	/**
+	 * The substituted property values with the profile values overlaid (lazy substitution, built when first needed).
+	 */
+	private final AtomicReference<Map<String, String>> substitutedResolved = new AtomicReference<>();
+
+	/**
+	 * The resolved keys with a value of true, cached for flag look-up speed (not including values to substitute if
+	 * lazy substitution).
+	 */
+	private final Set<String> booleanBacking;
+
+	/**
+	 * The current profile (if set).
+	 */
+	private final String profile;
+
+	/**
+	 * The property values sorted by key (not substituted if lazy substitution, built when first needed).
+	 */
+	private final AtomicReference<NavigableMap<String, String>> sortedBacking = new AtomicReference<>();
+
+	/**
+	 * Cache of subcontexts, by {true,false}-prefix.
+	 */
+	private final Map<String, Properties> subcontextCache = new ConcurrentHashMap<>();
+
+	/**
+	 * Cache of subset views, by prefix.
+	 */
+	private final Map<String, Configuration> subsetCache = new ConcurrentHashMap<>();
+
+	/**
+	 * Cache of converted values, by type and key.
+	 */
+	private final Map<Class<?>, Map<String, Converted>> convertedCache = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a snapshot of the given properties.
+	 * <p>
+	 * The snapshot takes ownership of the backing map. The caller must not change it after the snapshot is created.
+	 * </p>
+	 *
+	 * @param backing the property values
+	 * @param profile the current profile or null if not set
+	 */
+	ConfigurationSnapshot(final Map<String, String> backing, final String profile) {
+		this(backing, profile, false);
+	}
+
+	/**
+	 * Create a snapshot of the given properties.
+	 * <p>
+	 * The snapshot takes ownership of the backing map. The caller must not change it after the snapshot is created.
+	 * </p>
+	 *
+	 * @param backing the property values
+	 * @param profile the current profile or null if not set
+	 * @param lazySubstitution true if the references in the values are to be resolved when the values are looked up
+	 */
+	ConfigurationSnapshot(final Map<String, String> backing, final String profile, final boolean lazySubstitution) {
+		this.backing = Collections.unmodifiableMap(backing);
+		this.profile = profile;
+		this.substitutor = lazySubstitution ? new PropertySubstitutor(this.backing) : null;
+		this.lazyKeys = lazySubstitution ? new HashMap<>() : null;
+
+		Set<String> booleans = new HashSet<>();
+		for (Map.Entry<String, String> entry : backing.entrySet()) {
+			if (BooleanUtils.toBoolean(entry.getValue())) {
+				booleans.add(entry.getKey());
+			} else if (lazyKeys != null && hasReference(entry.getValue())) {
+				lazyKeys.put(entry.getKey(), entry.getKey());
+			}
+		}
+
+		if (profile == null) {
+			this.resolved = this.backing;
+		} else {
+			// Overlay the profile values onto their base keys
+			Map<String, String> overlay = new HashMap<>(backing);
+			String suffix = "." + profile;
+			for (Map.Entry<String, String> entry : backing.entrySet()) {
+				String key = entry.getKey();
+				String value = entry.getValue();
+				if (value == null || !key.endsWith(suffix)) {
+					continue;
+				}
+				String baseKey = key.substring(0, key.length() - suffix.length());
+				if (useProfileKey(baseKey)) {
+					overlay.put(baseKey, value);
+					if (lazyKeys != null) {
+						if (hasReference(value)) {
+							lazyKeys.put(baseKey, key);
+						} else {
+							lazyKeys.remove(baseKey);
+						}
+					}
+					// A true profile value makes the base key true (a false profile value does not override)
+					if (BooleanUtils.toBoolean(value)) {
+						booleans.add(baseKey);
+					}
+				}
+			}
+			this.resolved = Collections.unmodifiableMap(overlay);
+		}
+		this.booleanBacking = Collections.unmodifiableSet(booleans);
+	}
+
+	/**
+	 * @param value the property value
+	 * @return true if the value contains a reference to substitute
+	 */
+	private static boolean hasReference(final String value) {
+		return value != null && value.contains("${");
+	}
+
+	/**
+	 * @return the unmodifiable property values
+	 */
+	Map<String, String> getBacking() {
+		if (substitutor == null) {
+			return backing;
+		}
+		Map<String, String> substituted = substitutedBacking.get();
+		if (substituted == null) {
+			Map<String, String> values = new HashMap<>(backing);
+			for (Map.Entry<String, String> entry : backing.entrySet()) {
+				if (hasReference(entry.getValue())) {
+					values.put(entry.getKey(), getSubstituted(entry.getKey()));
+				}
+			}
+			substituted = Collections.unmodifiableMap(values);
+			if (!substitutedBacking.compareAndSet(null, substituted)) {
+				substituted = substitutedBacking.get();
+			}
+		}
+		return substituted;
+	}
+
+	/**
+	 * @return the unmodifiable property keys
+	 */
+	Set<String> getKeys() {
+		return backing.keySet();
+	}
+
+	/**
+	 * @return the current profile or null if not set
+	 */
+	String getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @return the unmodifiable property values with the profile values overlaid onto their base keys
+	 */
+	Map<String, String> getResolved() {
+		if (substitutor == null) {
+			return resolved;
+		}
+		Map<String, String> substituted = substitutedResolved.get();
+		if (substituted == null) {
+			Map<String, String> values = new HashMap<>(resolved);
+			for (Map.Entry<String, String> entry : lazyKeys.entrySet()) {
+				values.put(entry.getKey(), getSubstituted(entry.getValue()));
+			}
+			substituted = Collections.unmodifiableMap(values);
+			if (!substitutedResolved.compareAndSet(null, substituted)) {
+				substituted = substitutedResolved.get();
+			}
+		}
+		return substituted;
+	}
+
+	/**
+	 * @param key the property key
+	 * @return the property value (checking the profile key first) or null
+	 */
+	String get(final String key) {
+		if (lazyKeys != null) {
+			String backingKey = lazyKeys.get(key);
+			if (backingKey != null) {
+				return getSubstituted(backingKey);
+			}
+		}
+		return resolved.get(key);
+	}
+
+	/**
+	 * @param backingKey the key of a value in the backing
+	 * @return the substituted value, which is resolved the first time it is needed
+	 */
+	private String getSubstituted(final String backingKey) {
+		String value = substitutedCache.get(backingKey);
+		if (value == null) {
+			synchronized (substitutor) {
+				value = substitutor.resolve(backingKey);
+			}
+			substitutedCache.put(backingKey, value);
+		}
+		return value;
+	}
+
+	/**
+	 * @param key the property key
+	 * @return true if the property or its profile property exists
+	 */
+	boolean containsKey(final String key) {
+		return resolved.containsKey(key);
+	}
+
+	/**
+	 * @param key the property key
+	 * @return true if the property or its profile property is true
+	 */
+	boolean getBoolean(final String key) {
+		if (lazyKeys != null && lazyKeys.containsKey(key)) {
+			return booleanBacking.contains(key) || BooleanUtils.toBoolean(get(key));
+		}
+		return booleanBacking.contains(key);
+	}
+
+	/**
+	 * @param key the property key
+	 * @return true if check suffix
+	 */
+	boolean useProfileKey(final String key) {
+		// Has profile and is not the profile property
+		return profile != null
+				&& !DefaultConfiguration.ENVIRONMENT_PROPERTY.equals(key)
+				&& !DefaultConfiguration.PROFILE_PROPERTY.equals(key);
+	}
+
+	/**
+	 * @param key the property key
+	 * @return the property key with the profile suffix
+	 */
+	String getProfileKey(final String key) {
+		if (useProfileKey(key)) {
+			return key + "." + profile;
+		} else {
+			return key;
+		}
+	}
+
+	/**
+	 * @param prefix the key prefix
+	 * @return the unmodifiable property values with keys starting with the prefix, in key order
+	 */
+	SortedMap<String, String> getPrefixed(final String prefix) {
+		SortedMap<String, String> range = getRange(prefix);
+		if (substitutor == null) {
+			return range;
+		}
+		// Only the values with the prefix are substituted
+		SortedMap<String, String> values = new TreeMap<>(range);
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			if (hasReference(entry.getValue())) {
+				entry.setValue(getSubstituted(entry.getKey()));
+			}
+		}
+		return Collections.unmodifiableSortedMap(values);
+	}
+
+	/**
+	 * @param prefix the key prefix
+	 * @return the unmodifiable property keys starting with the prefix, in key order
+	 */
+	Set<String> getPrefixedKeys(final String prefix) {
+		return getRange(prefix).keySet();
+	}
+
+	/**
+	 * @param prefix the key prefix
+	 * @return the unmodifiable property values (not substituted if lazy substitution) with keys starting with the
+	 * prefix, in key order
+	 */
+	private SortedMap<String, String> getRange(final String prefix) {
+		NavigableMap<String, String> sorted = getSortedBacking();
+		if (prefix.isEmpty()) {
+			return sorted;
+		}
+		String end = getPrefixEnd(prefix);
+		return end == null ? sorted.tailMap(prefix, true) : sorted.subMap(prefix, true, end, false);
+	}
+
+	/**
+	 * @return the unmodifiable property values (not substituted if lazy substitution) sorted by key
+	 */
+	private NavigableMap<String, String> getSortedBacking() {
+		NavigableMap<String, String> sorted = sortedBacking.get();
+		if (sorted == null) {
+			sorted = Collections.unmodifiableNavigableMap(new TreeMap<>(backing));
+			if (!sortedBacking.compareAndSet(null, sorted)) {
+				sorted = sortedBacking.get();
+			}
+		}
+		return sorted;
+	}
+
+	/**
+	 * Find the properties that have changed from a previous snapshot. The values before substitution are compared, and
+	 * with lazy substitution the values that refer to a changed value are also changed, so no values are resolved.
+	 *
+	 * @param previous the previous snapshot
+	 * @return the keys of the properties (with the profile values overlaid) that have been added, changed or removed
+	 */
+	Set<String> findChangedKeys(final ConfigurationSnapshot previous) {
+		if ((substitutor == null) != (previous.substitutor == null)) {
+			// The substitution mode changed, so compare the substituted values
+			return findChangedKeys(previous.getResolved(), getResolved());
+		}
+		Set<String> changed = findChangedKeys(previous.resolved, resolved);
+		if (substitutor != null) {
+			Set<String> changedBacking = findChangedKeys(previous.backing, backing);
+			if (!changedBacking.isEmpty()) {
+				Set<String> dependents;
+				synchronized (substitutor) {
+					dependents = substitutor.getDependents(changedBacking);
+				}
+				for (Map.Entry<String, String> entry : lazyKeys.entrySet()) {
+					if (dependents.contains(entry.getValue())) {
+						changed.add(entry.getKey());
+					}
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * @param previous the previous property values
+	 * @param current the current property values
+	 * @return the keys of the properties that have been added, changed or removed
+	 */
+	private static Set<String> findChangedKeys(final Map<String, String> previous, final Map<String, String> current) {
+		Set<String> changed = new HashSet<>();
+		for (Map.Entry<String, String> entry : current.entrySet()) {
+			String key = entry.getKey();
+			if (!previous.containsKey(key) || !Objects.equals(previous.get(key), entry.getValue())) {
+				changed.add(key);
+			}
+		}
+		for (String key : previous.keySet()) {
+			if (!current.containsKey(key)) {
+				changed.add(key);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * @param backingKey the key of a value in the backing
+	 * @return true if the value has been substituted (lazy substitution)
+	 */
+	boolean isSubstituted(final String backingKey) {
+		return substitutedCache.containsKey(backingKey);
+	}
+
+	/**
+	 * Keys starting with a prefix sort from the prefix up to (but not including) the prefix with its last character
+	 * incremented.
+	 *
+	 * @param prefix the key prefix
+	 * @return the first key after all the keys starting with the prefix, or null if there is no such key
+	 */
+	static String getPrefixEnd(final String prefix) {
+		for (int i = prefix.length() - 1; i >= 0; i--) {
+			char last = prefix.charAt(i);
+			if (last != Character.MAX_VALUE) {
+				return prefix.substring(0, i) + (char) (last + 1);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Convert a property value. The converted value is cached for the life of the snapshot, so repeated reads of the
+	 * same value do not convert it again.
+	 * <p>
+	 * The cached value is only used if it was converted from the same value, so a value that does not come from this
+	 * snapshot is still converted correctly.
+	 * </p>
+	 *
+	 * @param key the property key
+	 * @param value the property value
+	 * @param type the type to convert to
+	 * @param converter converts the property value
+	 * @param <T> the converted type
+	 * @return the converted value
+	 */
+	<T> T convert(final String key, final String value, final Class<T> type, final Function<String, T> converter) {
+		Map<String, Converted> cache = convertedCache.get(type);
+		if (cache == null) {
+			cache = new ConcurrentHashMap<>();
+			Map<String, Converted> existing = convertedCache.putIfAbsent(type, cache);
+			if (existing != null) {
+				cache = existing;
+			}
+		}
+
+		Converted cached = cache.get(key);
+		if (cached != null && value.equals(cached.source)) {
+			return type.cast(cached.value);
+		}
+
+		T converted = converter.apply(value);
+		cache.put(key, new Converted(value, converted));
+		return converted;
+	}
+
+	/**
+	 * Returns a sub-set of the properties in this snapshot. The result is cached for the life of the snapshot.
+	 *
+	 * @param prefix the prefix of the parameter keys which should be included.
+	 * @param truncate if true, the prefix is truncated in the returned properties.
+	 * @return the cached properties sub-set, which must not be modified.
+	 */
+	Properties getSubProperties(final String prefix, final boolean truncate) {
+		return subcontextCache.computeIfAbsent(truncate + prefix, cacheKey -> {
+			Properties sub = new Properties();
+			int length = prefix.length();
+			for (Map.Entry<String, String> entry : getPrefixed(prefix).entrySet()) {
+				String key = entry.getKey();
+				// If we are truncating, remove the prefix
+				String newKey = truncate ? key.substring(length) : key;
+				sub.setProperty(newKey, entry.getValue());
+			}
+			return sub;
+		});
+	}
+
+	/**
+	 * Returns the subset view for a prefix. The view is created once and shared for the life of the snapshot.
+	 *
+	 * @param prefix the prefix of the parameter keys which should be included.
+	 * @param factory creates the view for the prefix
+	 * @return the cached subset view
+	 */
+	Configuration getSubset(final String prefix, final Function<String, Configuration> factory) {
+		return subsetCache.computeIfAbsent(prefix, factory);
+	}
+
+	/**
+	 * A converted property value and the value it was converted from.
+	 */
+	private static final class Converted {
+
+		/**
+		 * The property value that was converted.
+		 */
+		private final String source;
+
+		/**
+		 * The converted value.
+		 */
+		private final Object value;
+
+		/**
+		 * @param source the property value that was converted
+		 * @param value the converted value
+		 */
+		Converted(final String source, final Object value) {
+			this.source = source;
+			this.value = value;
+		}
+	}
+
+}
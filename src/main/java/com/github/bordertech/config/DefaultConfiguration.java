@@ -1,19 +1,13 @@
 package com.github.bordertech.config;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PrintStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
@@ -25,13 +19,14 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConversionException;
-import org.apache.commons.configuration.MapConfiguration;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.ObjectUtils;
@@ -47,6 +42,11 @@ import org.apache.commons.text.StringSubstitutor;
  * <p>
  * Implementation of the {@link Configuration} interface.
  * </p>
+ * <p>
+ * Properties are looked up in an immutable {@link ConfigurationSnapshot}. Loading and changing properties happens
+ * under a lock on a separate backing, which is then published as a new snapshot. Reads never lock and never see a
+ * partially loaded or partially changed set of properties.
+ * </p>
  *
  * @author Jonathan Austin
  * @see Config
@@ -146,11 +146,31 @@ public class DefaultConfiguration implements Configuration {
 	@Deprecated
 	private static final String LEGACY_SYSTEM_PARAMETERS_PREFIX = "bordertech.wcomponents.parameters.system.";
 
+	/**
+	 * The touchfile used to trigger a reload of the configuration (see {@link Config}).
+	 */
+	private static final String TOUCHFILE = "bordertech.config.touchfile";
+
 	/**
 	 * The prefix output before log messages.
 	 */
 	private static final String LOG_PREFIX = "PARAM_DEBUG: ";
 
+	/**
+	 * Splits comma-delimited lists, trimming spaces around the items.
+	 */
+	private static final Pattern LIST_SEPARATOR = Pattern.compile("\\s*,\\s*");
+
+	/**
+	 * An empty list value.
+	 */
+	private static final String[] EMPTY_ARRAY = new String[0];
+
+	/**
+	 * The location of properties added at runtime.
+	 */
+	private static final String RUNTIME_LOCATION = "Runtime: property added at runtime";
+
 	// -----------------------------------------------------------------------------------------------------------------
 	// State used during loading of parameters
 	/**
@@ -171,35 +191,75 @@ public class DefaultConfiguration implements Configuration {
 	private final String[] resourceLoadOrder;
 
 	/**
-	 * Hold the current profile (if set).
+	 * The published snapshot used to look up properties.
+	 */
+	private final AtomicReference<ConfigurationSnapshot> snapshot = new AtomicReference<>(ConfigurationSnapshot.EMPTY);
+
+	/**
+	 * Hold the current profile (if set) of the backing being loaded or changed.
 	 */
 	private String currentProfile = null;
 
 	/**
-	 * Our backing store is a Map object.
+	 * The backing store being loaded or changed. Once published, the backing is shared with the snapshot and is copied
+	 * before it is changed again.
 	 */
 	private Map<String, String> backing;
 
 	/**
-	 * Explicitly cache booleans for flag look-up speed.
+	 * True if the backing is shared with the published snapshot.
 	 */
-	private Set<String> booleanBacking;
+	private boolean backingShared;
 
 	/**
 	 * Stores "explanations" of where each setting comes from. Each parameter will have a history, explaining all the
 	 * locations where that parameter was defined, in reverse order (so the first entry is the defining entry).
 	 */
-	private Map<String, String> locations;
+	private PropertyLocations locations;
 
 	/**
-	 * Cache of subcontexts, by {true,false}-prefix.
+	 * Properties added at runtime.
 	 */
-	private Map<String, Properties> subcontextCache;
+	private IncludeProperties runtimeProperties;
 
 	/**
-	 * Properties added at runtime.
+	 * The values before substitution of the properties changed by substitution, so a runtime change can substitute
+	 * the values that depend on it again. Null if the values are substituted when read.
 	 */
-	private IncludeProperties runtimeProperties;
+	private Map<String, String> templates;
+
+	/**
+	 * The keys put while making a runtime change, or null if not making a runtime change.
+	 */
+	private Set<String> changedKeys;
+
+	/**
+	 * The resources read by the last load, by location. Kept across a refresh so unchanged resources are not read or
+	 * parsed again. The parsed entries are only kept when a touchfile is configured and not in lean mode, so they are
+	 * not held for the life of a configuration that is never reloaded.
+	 */
+	private Map<String, LoadedResource> loadedResources = new HashMap<>();
+
+	/**
+	 * The resources read by the previous load, while loading.
+	 */
+	private Map<String, LoadedResource> previousResources = Collections.emptyMap();
+
+	/**
+	 * The resources already read by this load, when loading again to record the history and messages.
+	 */
+	private Map<String, LoadedResource> alreadyRead = Collections.emptyMap();
+
+	/**
+	 * True if the location history and load messages are recorded. Lean mode only records them if the properties
+	 * are dumped.
+	 */
+	private boolean tracking = true;
+
+	/**
+	 * Reads the resources in parallel while loading (if enabled).
+	 */
+	private ResourcePrefetcher prefetcher;
 
 	/**
 	 * Creates a Default Configuration.
@@ -225,24 +285,6 @@ public class DefaultConfiguration implements Configuration {
 		load();
 	}
 
-	/**
-	 * Copies information from the input stream to the output stream using a specified buffer size.
-	 *
-	 * @param in the source stream.
-	 * @param out the destination stream.
-	 * @throws IOException if there is an error reading or writing to the streams.
-	 */
-	private static void copyStream(final InputStream in, final OutputStream out) throws IOException {
-		final byte[] buf = new byte[2048];
-		int bytesRead = in.read(buf);
-
-		while (bytesRead != -1) {
-			out.write(buf, 0, bytesRead);
-			bytesRead = in.read(buf);
-		}
-		out.flush();
-	}
-
 	// -----------------------------------------------------------------------------------------------------------------
 	/**
 	 * Splits the given comma-delimited string into an an array. Leading/trailing spaces in list items will be trimmed.
@@ -250,11 +292,11 @@ public class DefaultConfiguration implements Configuration {
 	 * @param list the String to split.
 	 * @return the split version of the list.
 	 */
-	private String[] parseStringArray(final String list) {
+	private static String[] parseStringArray(final String list) {
 		if (StringUtils.isBlank(list)) {
-			return new String[0];
+			return EMPTY_ARRAY;
 		} else {
-			return list.trim().split("\\s*,\\s*");
+			return LIST_SEPARATOR.split(list.trim());
 		}
 	}
 
@@ -263,12 +305,10 @@ public class DefaultConfiguration implements Configuration {
 	 */
 	private void initialiseInstanceVariables() {
 		backing = new HashMap<>();
-		booleanBacking = new HashSet<>();
-		locations = new HashMap<>();
-
-		// subContextCache is updated on the fly so ensure no concurrent modification.
-		subcontextCache = Collections.synchronizedMap(new HashMap<>());
-		runtimeProperties = new IncludeProperties("Runtime: property added at runtime");
+		backingShared = false;
+		locations = new PropertyLocations();
+		runtimeProperties = new IncludeProperties(RUNTIME_LOCATION);
+		templates = null;
 		currentProfile = null;
 	}
 
@@ -276,6 +316,54 @@ public class DefaultConfiguration implements Configuration {
 	 * Load the backing from the properties file visible to our classloader, plus the filesystem.
 	 */
 	private void load() {
+		tracking = !InitHelper.LEAN_MODE;
+		Map<String, LoadedResource> previous = loadedResources;
+		loadProperties(previous);
+
+		if (!tracking && isDumpRequested()) {
+			// Lean mode did not record the history and messages to dump, so load again with them recorded. The
+			// resources already read by this load are used again.
+			tracking = true;
+			alreadyRead = loadedResources;
+			initialiseInstanceVariables();
+			try {
+				loadProperties(previous);
+			} finally {
+				alreadyRead = Collections.emptyMap();
+			}
+		}
+
+		if (InitHelper.LEAN_MODE || StringUtils.isEmpty(getBackingValue(TOUCHFILE))) {
+			// The parsed entries are only kept to skip parsing unchanged resources when a touchfile triggers a reload.
+			// Otherwise only the details used to check if a resource changed are kept.
+			loadedResources.replaceAll((location, resource) -> resource.withoutEntries());
+		}
+
+		publish();
+
+		// Dump Header Info
+		LOG.info(getDumpHeader());
+		// Dump properties
+		if (isDumpPropertiesConsole() || isDumpPropertiesFile()) {
+			handleDumpPropertyDetails();
+		}
+
+		// We don't want the StringBuilder hanging around after 'DUMP'.
+		clearMessages();
+
+		// Now move any parameters with the system parameters prefix into the real system parameters.
+		ConfigurationSnapshot current = getSnapshot();
+		System.getProperties().putAll(current.getSubProperties(SYSTEM_PARAMETERS_PREFIX, true));
+		// LEGACY
+		System.getProperties().putAll(current.getSubProperties(LEGACY_SYSTEM_PARAMETERS_PREFIX, true));
+	}
+
+	/**
+	 * Load the properties into the backing, without publishing them.
+	 *
+	 * @param previous the resources read by the previous load
+	 */
+	private void loadProperties(final Map<String, LoadedResource> previous) {
 		recordMessage("Loading parameters");
 		File cwd = new File(".");
 		String workingDir;
@@ -288,8 +376,26 @@ public class DefaultConfiguration implements Configuration {
 
 		recordMessage("Working directory is " + workingDir);
 
-		for (String resourceName : resourceLoadOrder) {
-			loadTop(resourceName);
+		// Keep the resources from the previous load to check if they have changed
+		previousResources = previous;
+		loadedResources = new HashMap<>();
+		if (InitHelper.LOAD_PARALLEL && alreadyRead.isEmpty()) {
+			// Find and read the resources in parallel. They are still loaded in order below.
+			prefetcher = new ResourcePrefetcher(getParamsClassLoader(), previousResources);
+			for (String resourceName : resourceLoadOrder) {
+				prefetcher.prefetch(resourceName);
+			}
+		}
+		try {
+			for (String resourceName : resourceLoadOrder) {
+				loadTop(resourceName);
+			}
+		} finally {
+			previousResources = Collections.emptyMap();
+			if (prefetcher != null) {
+				prefetcher.close();
+				prefetcher = null;
+			}
 		}
 
 		if (isUseSystemProperties()) {
@@ -305,37 +411,27 @@ public class DefaultConfiguration implements Configuration {
 		handlePropertySubstitution();
 
 		checkProfileProperty();
-
-		// Dump Header Info
-		LOG.info(getDumpHeader());
-		// Dump properties
-		if (isDumpPropertiesConsole() || isDumpPropertiesFile()) {
-			handleDumpPropertyDetails();
-		}
-
-		// We don't want the StringBuilder hanging around after 'DUMP'.
-		clearMessages();
-
-		// Now move any parameters with the system parameters prefix into the real system parameters.
-		Properties systemProperties = getSubProperties(SYSTEM_PARAMETERS_PREFIX, true);
-		System.getProperties().putAll(systemProperties);
-		// LEGACY
-		systemProperties = getSubProperties(LEGACY_SYSTEM_PARAMETERS_PREFIX, true);
-		System.getProperties().putAll(systemProperties);
 	}
 
 	/**
 	 * @return true if load system properties into config
 	 */
 	private boolean isUseSystemProperties() {
-		return getBoolean(USE_SYSTEM_PROPERTIES) || getBoolean(LEGACY_USE_SYSTEM_PROPERTIES);
+		return getBackingBoolean(USE_SYSTEM_PROPERTIES) || getBackingBoolean(LEGACY_USE_SYSTEM_PROPERTIES);
 	}
 
 	/**
 	 * @return true if load OS Environment properties into config
 	 */
 	private boolean isUseOsEnvProperties() {
-		return getBoolean(USE_OSENV_PROPERTIES);
+		return getBackingBoolean(USE_OSENV_PROPERTIES);
+	}
+
+	/**
+	 * @return true if the backing being loaded asks for the properties to be dumped
+	 */
+	private boolean isDumpRequested() {
+		return getBackingBoolean(DUMP) || getBackingBoolean(LEGACY_DUMP) || !StringUtils.isEmpty(getBackingValue(DUMP_FILE));
 	}
 
 	/**
@@ -441,9 +537,11 @@ public class DefaultConfiguration implements Configuration {
 
 		info.append("----Config: Properties loaded start----\n");
 
-		for (String key : new TreeSet<>(backing.keySet())) {
-			String value = backing.get(key);
-			String history = locations.get(key);
+		// The published values, which are substituted if lazy substitution
+		Map<String, String> values = getSnapshot().getBacking();
+		for (String key : new TreeSet<>(values.keySet())) {
+			String value = values.get(key);
+			String history = locations.getHistory(key);
 			info.append(LOG_PREFIX);
 			info.append(key);
 			info.append(" = ");
@@ -487,9 +585,9 @@ public class DefaultConfiguration implements Configuration {
 			substitute(INCLUDE_AFTER);
 
 			// Now split and process
-			String[] includeAfter = parseStringArray(get(INCLUDE_AFTER));
+			String[] includeAfter = parseStringArray(getBackingValue(INCLUDE_AFTER));
 
-			backing.remove(INCLUDE_AFTER);
+			removeBacking(INCLUDE_AFTER);
 			for (String after : includeAfter) {
 				loadTop(after);
 			}
@@ -510,7 +608,7 @@ public class DefaultConfiguration implements Configuration {
 			List<URL> urls = findClassLoaderResources(resourceName);
 			if (!urls.isEmpty()) {
 				found = true;
-				List<Pair<URL, byte[]>> contents = getResourceContents(urls);
+				List<Pair<URL, LoadedResource>> contents = getResourceContents(urls);
 				loadResourceContents(contents);
 			}
 
@@ -553,12 +651,15 @@ public class DefaultConfiguration implements Configuration {
 
 		// Try classloader - load the resources in reverse order of the enumeration.  Since later-loaded resources
 		// override earlier-loaded ones, this better corresponds to the usual classpath behaviour.
-		ClassLoader classloader = getParamsClassLoader();
-		recordMessage("Using classloader " + classloader);
-
-		List<URL> urls = new ArrayList<>();
-		for (Enumeration<URL> res = classloader.getResources(resourceName); res.hasMoreElements();) {
-			urls.add(res.nextElement());
+		List<URL> urls = prefetcher == null ? null : prefetcher.getUrls(resourceName);
+		if (urls == null) {
+			ClassLoader classloader = getParamsClassLoader();
+			recordMessage("Using classloader " + classloader);
+
+			urls = new ArrayList<>();
+			for (Enumeration<URL> res = classloader.getResources(resourceName); res.hasMoreElements();) {
+				urls.add(res.nextElement());
+			}
 		}
 		recordMessage("Resource " + resourceName + " was found  " + urls.size() + " times");
 
@@ -572,60 +673,87 @@ public class DefaultConfiguration implements Configuration {
 	 * @return a list of URLs and resource contents
 	 * @throws IOException an IO Exception has occurred
 	 */
-	private List<Pair<URL, byte[]>> getResourceContents(final List<URL> urls) throws IOException {
+	private List<Pair<URL, LoadedResource>> getResourceContents(final List<URL> urls) throws IOException {
 
 		// Sometimes the same URL will crop up several times (because of redundant entries in classpaths).  Also,
 		// sometimes the same file appears under several URLS (because it's packaged into a jar and also a classes
 		// directory, perhaps). In these circumstances we really only want to load the resource once - we load the
 		// first one and then ignore later ones.
-		Map<String, String> loadedFiles = new HashMap<>();
 
-		// Build up a list of the byte arrays from the files that we then process.
-		List<Pair<URL, byte[]>> contentsList = new ArrayList<>();
+		// Build up a list of the resources that we then process.
+		List<Pair<URL, LoadedResource>> contentsList = new ArrayList<>();
 
 		// This processes from the front-of-classpath to end-of-classpath since end-of-classpath ones appear last in
 		// the enumeration
 		for (URL url : urls) {
 
-			// Load the contents of the resource, for comparison with existing resources.
-			byte[] urlContentBytes;
-			try (InputStream urlContentStream = url.openStream(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-				copyStream(urlContentStream, baos);
-				urlContentBytes = baos.toByteArray();
-			}
-			String urlContent = new String(urlContentBytes, StandardCharsets.UTF_8);
+			// Load the resource, for comparison with existing resources.
+			LoadedResource resource = readResource(url.toString(), FileUtils.toFile(url), url::openStream);
 
-			// Check if we have already loaded this file.
-			if (loadedFiles.containsKey(urlContent)) {
-				recordMessage("Skipped url " + url + " - duplicate of " + loadedFiles.get(urlContent));
+			// Check if we have already loaded this file (compares the length and digest of the content).
+			URL duplicateOf = findSameContent(contentsList, resource);
+			if (duplicateOf != null) {
+				recordMessage("Skipped url " + url + " - duplicate of " + duplicateOf);
 				continue;
 			}
 
-			loadedFiles.put(urlContent, url.toString());
-
-			contentsList.add(new ImmutablePair<>(url, urlContentBytes));
+			contentsList.add(new ImmutablePair<>(url, resource));
 		}
 
 		return contentsList;
 	}
 
+	/**
+	 * @param contentsList the list of URLs and resources already loaded
+	 * @param resource the resource to check
+	 * @return the URL of a loaded resource with the same content, or null if none
+	 */
+	private static URL findSameContent(final List<Pair<URL, LoadedResource>> contentsList, final LoadedResource resource) {
+		for (Pair<URL, LoadedResource> loaded : contentsList) {
+			if (loaded.getRight().isSameContent(resource)) {
+				return loaded.getLeft();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Read a resource, unless it has already been read by this load or in parallel.
+	 *
+	 * @param location the resource location
+	 * @param file the resource file, or null if the resource is not a file
+	 * @param opener opens the resource content
+	 * @return the loaded resource
+	 * @throws IOException an IO Exception occurred
+	 */
+	private LoadedResource readResource(final String location, final File file, final LoadedResource.Opener opener) throws IOException {
+		LoadedResource previous = previousResources.get(location);
+		LoadedResource resource = alreadyRead.get(location);
+		if (resource == null && prefetcher != null) {
+			resource = prefetcher.getResource(location);
+		}
+		if (resource == null) {
+			resource = LoadedResource.read(file, opener, previous);
+		}
+		if (resource == previous) {
+			recordMessage("Resource " + location + " has not changed");
+		}
+		loadedResources.put(location, resource);
+		return resource;
+	}
+
 	/**
 	 * Load the resource contents.
 	 *
 	 * @param contentsList the list of URLs and resource content
-	 * @throws IOException an IO Exception occurred
 	 */
-	private void loadResourceContents(final List<Pair<URL, byte[]>> contentsList) throws IOException {
+	private void loadResourceContents(final List<Pair<URL, LoadedResource>> contentsList) {
 
 		// Load in reverse order
 		for (int i = contentsList.size() - 1; i >= 0; i--) {
 			URL url = contentsList.get(i).getLeft();
-			byte[] buff = contentsList.get(i).getRight();
 			recordMessage("Loading from url " + url + "...");
-			try (ByteArrayInputStream in = new ByteArrayInputStream(buff)) {
-				// Use the "IncludeProperties" to load properties into us one at a time....
-				new IncludeProperties(url.toString()).load(in);
-			}
+			loadEntries(url.toString(), contentsList.get(i).getRight());
 		}
 	}
 
@@ -641,9 +769,22 @@ public class DefaultConfiguration implements Configuration {
 
 		recordMessage("Loading from file " + fileName + "...");
 
-		try (FileInputStream fin = new FileInputStream(file); BufferedInputStream bin = new BufferedInputStream(fin)) {
-			// Use the "IncludeProperties" to load properties into us, one at a time....
-			new IncludeProperties("file:" + fileName).load(bin);
+		String location = "file:" + fileName;
+		LoadedResource resource = readResource(location, file, () -> new FileInputStream(file));
+		loadEntries(location, resource);
+	}
+
+	/**
+	 * Load the parsed entries of a resource.
+	 *
+	 * @param location the resource location
+	 * @param resource the loaded resource
+	 */
+	private void loadEntries(final String location, final LoadedResource resource) {
+		// Use the "IncludeProperties" to load properties into us one at a time....
+		IncludeProperties properties = new IncludeProperties(location);
+		for (Pair<String, String> entry : resource.getEntries()) {
+			properties.put(entry.getKey(), entry.getValue());
 		}
 	}
 
@@ -708,8 +849,8 @@ public class DefaultConfiguration implements Configuration {
 	 * Load the System Properties into Config.
 	 */
 	private void loadSystemProperties() {
-		boolean overWriteOnly = getBoolean(USE_SYSTEM_OVERWRITEONLY, false);
-		List<String> allowedPrefixes = Arrays.asList(getStringArray(USE_SYSTEM_PREFIXES));
+		boolean overWriteOnly = getBackingBoolean(USE_SYSTEM_OVERWRITEONLY);
+		List<String> allowedPrefixes = Arrays.asList(parseStringArray(getBackingValue(USE_SYSTEM_PREFIXES)));
 		System
 				.getProperties()
 				.forEach((key, value) -> mergeExternalProperty("System Properties",
@@ -723,7 +864,7 @@ public class DefaultConfiguration implements Configuration {
 	 * Load the OS Environment Properties into Config.
 	 */
 	private void loadEnvironmentProperties() {
-		List<String> allowedPrefixes = Arrays.asList(getStringArray(USE_OSENV_PREFIXES));
+		List<String> allowedPrefixes = Arrays.asList(parseStringArray(getBackingValue(USE_OSENV_PREFIXES)));
 		System
 				.getenv()
 				.forEach((key, value) -> mergeExternalProperty("Environment Properties", key, value, false, allowedPrefixes));
@@ -756,7 +897,7 @@ public class DefaultConfiguration implements Configuration {
 		}
 
 		// Check overwrite only
-		if (overWriteOnly && get(key) == null) {
+		if (overWriteOnly && getBackingValue(key) == null) {
 			return;
 		}
 
@@ -802,7 +943,9 @@ public class DefaultConfiguration implements Configuration {
 	 * @param msg the message log.
 	 */
 	private void recordMessage(final String msg) {
-		messages.append(msg).append('\n');
+		if (tracking) {
+			messages.append(msg).append('\n');
+		}
 	}
 
 	/**
@@ -827,27 +970,115 @@ public class DefaultConfiguration implements Configuration {
 			return;
 		}
 
-		put(aKey, newValue, "substitution of ${" + value + "}");
+		putSubstituted(aKey, newValue, value);
 	}
 
+	/**
+	 * Put a property into the backing being loaded or changed.
+	 *
+	 * @param key the property key
+	 * @param value the property value
+	 * @param historyMsg the location of the property
+	 */
 	private void put(final String key, final String value, final String historyMsg) {
+		store(key, value);
+		if (tracking) {
+			locations.add(key, historyMsg);
+		}
+	}
+
+	/**
+	 * Put a substituted property value into the backing being loaded or changed.
+	 *
+	 * @param key the property key
+	 * @param value the substituted value
+	 * @param template the value before substitution
+	 */
+	private void putSubstituted(final String key, final String value, final String template) {
+		store(key, value);
+		if (tracking) {
+			locations.addSubstitution(key, template);
+		}
+	}
+
+	/**
+	 * Store a property value in the backing being loaded or changed.
+	 *
+	 * @param key the property key
+	 * @param value the property value
+	 */
+	private void store(final String key, final String value) {
+		prepareBacking();
 		backing.put(key, value);
+		if (changedKeys != null) {
+			changedKeys.add(key);
+		}
+	}
 
-		if (BooleanUtils.toBoolean(value)) {
-			booleanBacking.add(key);
-		} else {
-			booleanBacking.remove(key);
+	/**
+	 * Remove a property from the backing being loaded or changed.
+	 *
+	 * @param key the property key
+	 */
+	private void removeBacking(final String key) {
+		prepareBacking();
+		backing.remove(key);
+	}
+
+	/**
+	 * Make sure the backing can be changed. The backing is copied if it is shared with the published snapshot.
+	 */
+	private void prepareBacking() {
+		if (backingShared) {
+			backing = new HashMap<>(backing);
+			backingShared = false;
 		}
+	}
 
-		String history = locations.get(key);
+	/**
+	 * Publish the backing and current profile as the new snapshot used to look up properties.
+	 */
+	private void publish() {
+		snapshot.set(new ConfigurationSnapshot(backing, currentProfile, InitHelper.LAZY_SUBSTITUTION));
+		backingShared = true;
+	}
 
-		if (history == null) {
-			history = historyMsg;
-		} else {
-			history = historyMsg + "; " + history;
+	/**
+	 * @return the unmodifiable resources read by the last load, by location
+	 */
+	Map<String, LoadedResource> getLoadedResources() {
+		return Collections.unmodifiableMap(loadedResources);
+	}
+
+	/**
+	 * @return the current snapshot used to look up properties
+	 */
+	ConfigurationSnapshot getSnapshot() {
+		return snapshot.get();
+	}
+
+	/**
+	 * Look up a property in the backing being loaded or changed, instead of the published snapshot.
+	 *
+	 * @param key the property key
+	 * @return the property value (checking the profile key first) or null
+	 */
+	private String getBackingValue(final String key) {
+		if (currentProfile != null && !ENVIRONMENT_PROPERTY.equals(key) && !PROFILE_PROPERTY.equals(key)) {
+			String result = backing.get(key + "." + currentProfile);
+			if (result != null) {
+				return result;
+			}
 		}
+		return backing.get(key);
+	}
 
-		locations.put(key, history);
+	/**
+	 * @param key the property key
+	 * @return true if the property in the backing being loaded or changed is true
+	 */
+	private boolean getBackingBoolean(final String key) {
+		return BooleanUtils.toBoolean(getBackingValue(key));
 	}
 
 	/**
@@ -873,7 +1104,7 @@ public class DefaultConfiguration implements Configuration {
 	public Properties getProperties() {
 		// Don't return the backing directly; make a copy so that the caller can't change us...
 		Properties copy = new Properties();
-		copy.putAll(backing);
+		copy.putAll(getSnapshot().getBacking());
 		return copy;
 	}
 
@@ -881,17 +1112,8 @@ public class DefaultConfiguration implements Configuration {
 	// The rest of this class is the implementation of Configuration interface
 	@Override
 	public int getInt(final String key, final int defolt) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defolt;
-			}
-
-			return Integer.parseInt(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Integer value = getConverted(key, Integer.class, Integer::valueOf);
+		return value == null ? defolt : value;
 	}
 
 	@Override
@@ -906,62 +1128,59 @@ public class DefaultConfiguration implements Configuration {
 
 	@Override
 	public short getShort(final String key, final short defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Short.parseShort(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Short value = getConverted(key, Short.class, Short::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public Short getShort(final String key, final Short defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Short.valueOf(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Short value = getConverted(key, Short.class, Short::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public void addProperty(final String key, final Object value) {
-		if (containsKey(key)) {
-			String newValue = get(key) + ',' + (value == null ? "" : value);
-			addOrModifyProperty(key, newValue);
-		} else {
-			addOrModifyProperty(key, value == null ? null : value.toString());
+		synchronized (lockObject) {
+			// Add to the value before substitution, so a value that refers to other properties keeps following them
+			String current = templates == null ? null : templates.get(key);
+			if (current == null) {
+				current = backing.get(key);
+			}
+			if (current == null) {
+				addOrModifyProperty(key, value == null ? null : value.toString());
+			} else {
+				addOrModifyProperty(key, current + ',' + (value == null ? "" : value));
+			}
 		}
 	}
 
 	@Override
 	public void clear() {
-		backing.clear();
-		handlePropertiesChanged();
+		synchronized (lockObject) {
+			backing = new HashMap<>();
+			backingShared = false;
+			locations.clear();
+			if (templates != null) {
+				templates.clear();
+			}
+			handlePropertiesChanged();
+		}
 	}
 
 	@Override
 	public void clearProperty(final String key) {
-		backing.remove(key);
-		handlePropertiesChanged();
+		synchronized (lockObject) {
+			removeBacking(key);
+			if (templates != null) {
+				resubstitute(Collections.singleton(key));
+			}
+			handlePropertiesChanged();
+		}
 	}
 
 	@Override
 	public boolean containsKey(final String key) {
-		if (useProfileKey(key) && backing.containsKey(getProfileKey(key))) {
-			return true;
-		}
-		return backing.containsKey(key);
+		return getSnapshot().containsKey(key);
 	}
 
 	@Override
@@ -971,17 +1190,8 @@ public class DefaultConfiguration implements Configuration {
 
 	@Override
 	public BigDecimal getBigDecimal(final String key, final BigDecimal defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return new BigDecimal(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		BigDecimal value = getConverted(key, BigDecimal.class, BigDecimal::new);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
@@ -991,25 +1201,13 @@ public class DefaultConfiguration implements Configuration {
 
 	@Override
 	public BigInteger getBigInteger(final String key, final BigInteger defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return new BigInteger(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		BigInteger value = getConverted(key, BigInteger.class, BigInteger::new);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public boolean getBoolean(final String key) {
-		if (useProfileKey(key) && booleanBacking.contains(getProfileKey(key))) {
-			return true;
-		}
-		return booleanBacking.contains(key);
+		return getSnapshot().getBoolean(key);
 	}
 
 	@Override
@@ -1029,32 +1227,14 @@ public class DefaultConfiguration implements Configuration {
 
 	@Override
 	public byte getByte(final String key, final byte defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Byte.parseByte(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Byte value = getConverted(key, Byte.class, Byte::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public Byte getByte(final String key, final Byte defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Byte.valueOf(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Byte value = getConverted(key, Byte.class, Byte::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
@@ -1064,32 +1244,14 @@ public class DefaultConfiguration implements Configuration {
 
 	@Override
 	public double getDouble(final String key, final double defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Double.parseDouble(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Double value = getConverted(key, Double.class, Double::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public Double getDouble(final String key, final Double defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Double.valueOf(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Double value = getConverted(key, Double.class, Double::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
@@ -1099,79 +1261,42 @@ public class DefaultConfiguration implements Configuration {
 
 	@Override
 	public float getFloat(final String key, final float defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Float.parseFloat(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Float value = getConverted(key, Float.class, Float::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public Float getFloat(final String key, final Float defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Float.valueOf(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Float value = getConverted(key, Float.class, Float::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public Integer getInteger(final String key, final Integer defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Integer.valueOf(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Integer value = getConverted(key, Integer.class, Integer::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public Iterator<String> getKeys() {
-		return backing.keySet().iterator();
+		return getSnapshot().getKeys().iterator();
 	}
 
 	@Override
 	public Iterator<String> getKeys(final String prefix) {
-		Set<String> keys = new HashSet<>();
-
-		for (String key : backing.keySet()) {
-			if (key.startsWith(prefix)) {
-				keys.add(key);
-			}
-		}
-
-		return keys.iterator();
+		return getSnapshot().getPrefixedKeys(prefix).iterator();
 	}
 
 	@Override
 	public List<Object> getList(final String key) {
-		return getList(key, new ArrayList<>(1));
+		List<Object> list = getConverted(key, List.class, DefaultConfiguration::parseList);
+		return list == null ? new ArrayList<>(1) : list;
 	}
 
 	@Override
 	public List<Object> getList(final String key, final List defaultValue) {
-		if (containsKey(key)) {
-			return Arrays.asList(getStringArray(key));
-		} else {
-			return defaultValue;
-		}
+		List<Object> list = getConverted(key, List.class, DefaultConfiguration::parseList);
+		return list == null ? defaultValue : list;
 	}
 
 	@Override
@@ -1181,37 +1306,19 @@ public class DefaultConfiguration implements Configuration {
 
 	@Override
 	public long getLong(final String key, final long defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Long.parseLong(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Long value = getConverted(key, Long.class, Long::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public Long getLong(final String key, final Long defaultValue) {
-		try {
-			String value = get(key);
-
-			if (value == null) {
-				return defaultValue;
-			}
-
-			return Long.valueOf(value);
-		} catch (NumberFormatException ex) {
-			throw new ConversionException(ex);
-		}
+		Long value = getConverted(key, Long.class, Long::valueOf);
+		return value == null ? defaultValue : value;
 	}
 
 	@Override
 	public Properties getProperties(final String key) {
-		String[] keyValuePairs = getStringArray(key);
+		String[] keyValuePairs = getSharedStringArray(key);
 
 		Properties props = new Properties();
 
@@ -1245,12 +1352,31 @@ public class DefaultConfiguration implements Configuration {
 
 	@Override
 	public String[] getStringArray(final String key) {
-		return parseStringArray(get(key));
+		String[] array = getSharedStringArray(key);
+		// Arrays can be changed so return a copy
+		return array.length == 0 ? array : array.clone();
+	}
+
+	/**
+	 * @param key the property key
+	 * @return the cached array of list items, which must not be modified
+	 */
+	private String[] getSharedStringArray(final String key) {
+		String[] array = getConverted(key, String[].class, DefaultConfiguration::parseStringArray);
+		return array == null ? EMPTY_ARRAY : array;
+	}
+
+	/**
+	 * @param list the String to split.
+	 * @return an unmodifiable list of the list items
+	 */
+	private static List<Object> parseList(final String list) {
+		return Collections.unmodifiableList(Arrays.asList((Object[]) parseStringArray(list)));
 	}
 
 	@Override
 	public boolean isEmpty() {
-		return backing.isEmpty();
+		return getSnapshot().getKeys().isEmpty();
 	}
 
 	@Override
@@ -1258,44 +1384,80 @@ public class DefaultConfiguration implements Configuration {
 		addOrModifyProperty(key, value == null ? null : value.toString());
 	}
 
+	/**
+	 * Set many properties at runtime as one change.
+	 * <p>
+	 * The properties are all set, or none are if any key or value is not valid. Readers see either none or all of the
+	 * changes, and the properties are only copied and published once. If this is the current configuration of
+	 * {@link Config}, the listeners registered with it are notified once. Unlike {@link #setProperty(String, Object)},
+	 * the keys are not configuration directives (such as <code>include</code> or a trailing <code>+</code>), so each
+	 * value simply replaces the current value.
+	 * </p>
+	 *
+	 * @param properties the property values by key
+	 * @since 1.0.9
+	 */
+	public void setProperties(final Map<String, ?> properties) {
+		Map<String, String> values = new HashMap<>();
+		for (Map.Entry<String, ?> entry : properties.entrySet()) {
+			Object value = entry.getValue();
+			checkProperty(entry.getKey(), value);
+			values.put(entry.getKey(), value.toString());
+		}
+		if (values.isEmpty()) {
+			return;
+		}
+
+		synchronized (lockObject) {
+			for (Map.Entry<String, String> entry : values.entrySet()) {
+				String key = entry.getKey();
+				String value = entry.getValue();
+				if (templates == null) {
+					value = StringSubstitutor.replace(value, backing);
+				}
+				if (tracking) {
+					recordMessage("setProperties() - Setting property '" + key + "' with the value '" + value + "'.");
+				}
+				put(key, value, RUNTIME_LOCATION);
+			}
+			if (templates != null) {
+				resubstitute(values.keySet());
+			}
+			handlePropertiesChanged();
+		}
+		if (Config.getInstance() == this) {
+			Config.notifyListeners();
+		}
+	}
+
+	/**
+	 * Returns a read-only view of the properties with keys starting with the prefix. The keys in the view keep the
+	 * prefix. The view reflects any later changes to this configuration.
+	 * <p>
+	 * The view does not copy the properties and is shared by calls with the same prefix until the properties change.
+	 * </p>
+	 *
+	 * @param prefix the prefix of the parameter keys which should be included.
+	 * @return a read-only view of the properties sub-set
+	 */
 	@Override
 	public Configuration subset(final String prefix) {
-		return new MapConfiguration(getSubProperties(prefix, false));
+		return getSnapshot().getSubset(prefix, key -> new PrefixedConfiguration(this::getSnapshot, key));
 	}
 
 	/**
 	 * Returns a sub-set of the parameters contained in this configuration.
+	 * <p>
+	 * The returned properties are a copy that the caller may change. Use {@link #subset(String)} for a shared read-only
+	 * view that does not copy the properties.
+	 * </p>
 	 *
 	 * @param prefix the prefix of the parameter keys which should be included.
 	 * @param truncate if true, the prefix is truncated in the returned properties.
 	 * @return the properties sub-set, may be empty.
 	 */
 	protected Properties getSubProperties(final String prefix, final boolean truncate) {
-		String cacheKey = truncate + prefix;
-		Properties sub = subcontextCache.get(cacheKey);
-
-		if (sub == null) {
-			sub = new Properties();
-
-			int length = prefix.length();
-
-			for (Map.Entry<String, String> entry : backing.entrySet()) {
-
-				String key = entry.getKey();
-
-				if (key.startsWith(prefix)) {
-					// If we are truncating, remove the prefix
-					String newKey = key;
-
-					if (truncate) {
-						newKey = key.substring(length);
-					}
-
-					sub.setProperty(newKey, entry.getValue());
-				}
-			}
-			subcontextCache.put(cacheKey, sub);
-		}
+		Properties sub = getSnapshot().getSubProperties(prefix, truncate);
 
 		// Make a copy so users can't change.
 		Properties copy = new Properties();
@@ -1324,14 +1486,28 @@ public class DefaultConfiguration implements Configuration {
 	 * @return the property value or null
 	 */
 	protected String get(final String key) {
-		// Check profile property
-		if (useProfileKey(key)) {
-			String result = backing.get(getProfileKey(key));
-			if (result != null) {
-				return result;
-			}
+		return getSnapshot().get(key);
+	}
+
+	/**
+	 * Convert a property value. Converted values are cached until the properties change.
+	 *
+	 * @param key the property key
+	 * @param type the type to convert to
+	 * @param converter converts the property value
+	 * @param <T> the converted type
+	 * @return the converted value or null if the property does not exist
+	 */
+	private <T> T getConverted(final String key, final Class<T> type, final Function<String, T> converter) {
+		String value = get(key);
+		if (value == null) {
+			return null;
+		}
+		try {
+			return getSnapshot().convert(key, value, type, converter);
+		} catch (NumberFormatException ex) {
+			throw new ConversionException(ex);
 		}
-		return backing.get(key);
 	}
 
 	/**
@@ -1341,6 +1517,41 @@ public class DefaultConfiguration implements Configuration {
 	 * @param value the property value
 	 */
 	protected void addOrModifyProperty(final String name, final String value) {
+		checkProperty(name, value);
+
+		synchronized (lockObject) {
+			if (templates == null) {
+				//Check for substitution variables
+				final String updatedValue = StringSubstitutor.replace(value, backing);
+
+				recordMessage("modifyProperties() - Adding property '" + name + "' with the value '" + updatedValue + "'.");
+
+				runtimeProperties.put(name, updatedValue);
+			} else {
+				recordMessage("modifyProperties() - Adding property '" + name + "' with the value '" + value + "'.");
+
+				// Collect the keys put by the change (more than one for an include) to substitute them
+				changedKeys = new HashSet<>();
+				try {
+					runtimeProperties.put(name, value);
+				} finally {
+					Set<String> changed = changedKeys;
+					changedKeys = null;
+					resubstitute(changed);
+				}
+			}
+
+			handlePropertiesChanged();
+		}
+	}
+
+	/**
+	 * Check a property can be added or modified at runtime.
+	 *
+	 * @param name the property name
+	 * @param value the property value
+	 */
+	private static void checkProperty(final String name, final Object value) {
 		if (name == null) {
 			throw new IllegalArgumentException("name parameter can not be null.");
 		}
@@ -1352,35 +1563,97 @@ public class DefaultConfiguration implements Configuration {
 		if (value == null) {
 			throw new IllegalArgumentException("value parameter can not be null.");
 		}
+	}
 
-		//Check for substitution variables
-		final String updatedValue = StringSubstitutor.replace(value, backing);
-
-		recordMessage("modifyProperties() - Adding property '" + name + "' with the value '" + updatedValue + "'.");
-
-		runtimeProperties.put(name, updatedValue);
+	/**
+	 * Substitute changed property values, and substitute again the values that refer to them, directly or via other
+	 * values. The other values are not substituted again.
+	 *
+	 * @param keys the keys of the changed properties
+	 */
+	private void resubstitute(final Set<String> keys) {
+		// A substitutor is only built for the change, from the values before substitution
+		Map<String, String> changed = new HashMap<>();
+		for (String key : keys) {
+			changed.put(key, backing.get(key));
+			templates.remove(key);
+		}
+		Map<String, String> values = new HashMap<>(backing);
+		values.putAll(templates);
+		PropertySubstitutor substitutor = new PropertySubstitutor(values);
+		substitutor.getDependents(keys);
+		Map<String, String> substituted = substitutor.update(changed);
+		for (Map.Entry<String, String> entry : substituted.entrySet()) {
+			String key = entry.getKey();
+			String value = entry.getValue();
+			if (value == null) {
+				continue;
+			}
+			String template = substitutor.getValue(key);
+			if (value.equals(template)) {
+				templates.remove(key);
+			} else {
+				templates.put(key, template);
+			}
+			if (!value.equals(backing.get(key))) {
+				putSubstituted(key, value, template);
+			}
+		}
+		warnCyclicKeys(substitutor, substituted.keySet());
+	}
 
-		handlePropertiesChanged();
+	/**
+	 * Report the values that have not been substituted because they refer to themselves.
+	 *
+	 * @param substitutor the substitutor used
+	 * @param keys the keys of the values that have been substituted
+	 */
+	private void warnCyclicKeys(final PropertySubstitutor substitutor, final Set<String> keys) {
+		Set<String> cyclicKeys = new TreeSet<>(substitutor.getCyclicKeys());
+		cyclicKeys.retainAll(keys);
+		if (!cyclicKeys.isEmpty()) {
+			String message = "Recursive substitution detected. The values of " + cyclicKeys + " have not been substituted.";
+			recordMessage(message);
+			LOG.warn(message);
+		}
 	}
 
 	/**
 	 * Handle the substitution of property values.
 	 */
 	protected void handlePropertySubstitution() {
-		// Now perform variable substitution.
-		for (String key : backing.keySet()) {
-			substitute(key);
+		if (InitHelper.LAZY_SUBSTITUTION) {
+			// The values are substituted when they are first read, apart from the profile which is needed now
+			templates = null;
+			substitute(PROFILE_PROPERTY);
+			substitute(ENVIRONMENT_PROPERTY);
+			return;
+		}
+
+		// Now perform variable substitution. Values are resolved in dependency order and each only once. Only the
+		// values before substitution of the substituted properties are kept for later runtime changes.
+		PropertySubstitutor substitutor = new PropertySubstitutor(backing);
+		Map<String, String> substituted = substitutor.substitute();
+		templates = new HashMap<>();
+		for (Map.Entry<String, String> entry : substituted.entrySet()) {
+			String key = entry.getKey();
+			String template = backing.get(key);
+			templates.put(key, template);
+			putSubstituted(key, entry.getValue(), template);
 		}
+		warnCyclicKeys(substitutor, substitutor.getCyclicKeys());
 	}
 
 	/**
-	 * Handle a property change.
+	 * Handle a property change. The changed properties are published as a new snapshot, which also discards any
+	 * values cached for the previous snapshot.
 	 */
 	protected void handlePropertiesChanged() {
-		// clear the subContext cache, it's now invalid
-		subcontextCache.clear();
-		// Check if profile changed
-		checkProfileProperty();
+		synchronized (lockObject) {
+			// Check if profile changed
+			checkProfileProperty();
+			publish();
+		}
 	}
 
 	/**
@@ -1409,8 +1682,7 @@ public class DefaultConfiguration implements Configuration {
 	 * @return true if check suffix
 	 */
 	protected boolean useProfileKey(final String key) {
-		// Has environment and is not the environment property
-		return currentProfile != null && !ENVIRONMENT_PROPERTY.equals(key) && !PROFILE_PROPERTY.equals(key);
+		return getSnapshot().useProfileKey(key);
 	}
 
 	/**
@@ -1418,11 +1690,7 @@ public class DefaultConfiguration implements Configuration {
 	 * @return the property key with the environment suffix
 	 */
 	protected String getProfileKey(final String key) {
-		if (useProfileKey(key)) {
-			return key + "." + currentProfile;
-		} else {
-			return key;
-		}
+		return getSnapshot().getProfileKey(key);
 	}
 
 	/**
@@ -1460,9 +1728,10 @@ public class DefaultConfiguration implements Configuration {
 	 *
 	 * <p>
 	 * This is used to ensure on the call of put(key, value) is immediately loaded into the {@link DefaultConfiguration}
-	 * to respect the order hierarchy for the configuration.</p>
+	 * to respect the order hierarchy for the configuration. The entries are not kept, they are only put into the
+	 * {@link DefaultConfiguration}.</p>
 	 */
-	private class IncludeProperties extends Properties {
+	private class IncludeProperties {
 
 		/**
 		 * The properties file location (if applicable).
@@ -1479,24 +1748,21 @@ public class DefaultConfiguration implements Configuration {
 		}
 
 		/**
-		 * Adds a value to the properties set. This has been overridden to support the Configuration extensions (e.g.
-		 * the "include" directive).
+		 * Adds a value to the configuration. This supports the Configuration extensions (e.g. the "include"
+		 * directive).
 		 *
 		 * @param aKey the key to add
 		 * @param aValue the value to add
-		 * @return the old value for the key, or null if there was no previously associated value.
 		 */
-		@Override
-		public synchronized Object put(final Object aKey, final Object aValue) {
-			String key = (String) aKey;
-			String value = (String) aValue;
+		void put(final String aKey, final String aValue) {
+			String key = aKey;
+			String value = aValue;
 
 			// Act on "include" directives immediately
 			if (INCLUDE.equals(key)) {
 				for (String subFile : parseStringArray(StringSubstitutor.replace(value, backing))) {
 					DefaultConfiguration.this.load(subFile);
 				}
-				return value;
 			} else {
 				// Check for a trailing "+" sign on the key (or a leading "+= on the value")
 				boolean append = false;
@@ -1505,35 +1771,21 @@ public class DefaultConfiguration implements Configuration {
 					key = key.substring(0, key.length() - 1);
 					append = true;
 				} else if (value != null && value.startsWith("+=")) {
-					// If the line contained "key += value" then the Properties will have parsed this as 'key'
+					// If the line contained "key += value" then the parser will have parsed this as 'key'
 					// and '+= value'
 					value = value.substring(2).trim();
 					append = true;
 				}
 
 				if (append || INCLUDE_AFTER.equals(key)) {
-					String already = DefaultConfiguration.this.get(key);
+					String already = getBackingValue(key);
 
 					// If there is no value already, strip off the leading comma, otherwise append.
 					value = (already != null ? already + "," + value : value);
 				}
 
 				DefaultConfiguration.this.put(key, value, location);
-
-				return super.put(key, value);
 			}
 		}
-
-		@Override
-		public synchronized int hashCode() {
-			int hash = 5;
-			hash = 97 * hash + Objects.hashCode(this.location);
-			return hash;
-		}
-
-		@Override
-		public synchronized boolean equals(final Object obj) {
-			return obj instanceof IncludeProperties && Objects.equals(this.location, ((IncludeProperties) obj).location);
-		}
 	}
 }
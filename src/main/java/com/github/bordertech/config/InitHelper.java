@@ -26,6 +26,13 @@ import org.apache.commons.lang3.StringUtils;
  * <li>bordertech.config.resource.order - order of resources to load into the configuration</li>
  * <li>bordertech.config.resource.append - append additional resources. This is helpful when adding extra resources to
  * the default resources</li>
+ * <li>bordertech.config.load.parallel - find and read the resources in parallel when loading (default: false)</li>
+ * <li>bordertech.config.load.lean - only record the location history and load messages of the properties if they
+ * are dumped (default: false)</li>
+ * <li>bordertech.config.substitution.lazy - only substitute the <code>${...}</code> references in a property value
+ * when the property is first read (default: false)</li>
+ * <li>bordertech.config.reload.background - reload the configuration on a background thread when the touchfile has
+ * changed, instead of on the thread calling {@link Config#getInstance()} (default: false)</li>
  * </ul>
  * <p>
  * The default resources Config looks for are:-
@@ -55,6 +62,10 @@ public final class InitHelper {
 	private static final String PARAM_KEY_SPI_APPEND_DEFAULT = "bordertech.config.spi.append.default";
 	private static final String PARAM_KEY_RESOURCE_ORDER = "bordertech.config.resource.order";
 	private static final String PARAM_KEY_RESOURCE_APPEND = "bordertech.config.resource.append";
+	private static final String PARAM_KEY_LOAD_PARALLEL = "bordertech.config.load.parallel";
+	private static final String PARAM_KEY_LOAD_LEAN = "bordertech.config.load.lean";
+	private static final String PARAM_KEY_LAZY_SUBSTITUTION = "bordertech.config.substitution.lazy";
+	private static final String PARAM_KEY_RELOAD_BACKGROUND = "bordertech.config.reload.background";
 	private static final List<String> DEFAULT_BORDERTECH_LOAD_ORDER = Arrays.asList(
 			// The name of the first resource we look for is for internal default properties
 			"bordertech-defaults.properties",
@@ -76,6 +87,22 @@ public final class InitHelper {
 	 * SPI append default config flag.
 	 */
 	public static final boolean SPI_APPEND_DEFAULT_CONFIG;
+	/**
+	 * Find and read the resources in parallel flag.
+	 */
+	public static final boolean LOAD_PARALLEL;
+	/**
+	 * Only record the location history and load messages if dumped flag.
+	 */
+	public static final boolean LEAN_MODE;
+	/**
+	 * Substitute property values when first read flag.
+	 */
+	public static final boolean LAZY_SUBSTITUTION;
+	/**
+	 * Reload the configuration on a background thread when the touchfile has changed flag.
+	 */
+	public static final boolean RELOAD_BACKGROUND;
 
 	static {
 		// Load the config defaults (if exists)
@@ -88,6 +115,14 @@ public final class InitHelper {
 		SPI_ENABLED = configDefaults.getBoolean(PARAM_KEY_SPI_ENABLED, true);
 		// Load resource order
 		DEFAULT_RESOURCE_LOAD_ORDER = getResourceOrder(configDefaults);
+		// Check if parallel load enabled
+		LOAD_PARALLEL = configDefaults.getBoolean(PARAM_KEY_LOAD_PARALLEL, false);
+		// Check if lean mode enabled
+		LEAN_MODE = configDefaults.getBoolean(PARAM_KEY_LOAD_LEAN, false);
+		// Check if lazy substitution enabled
+		LAZY_SUBSTITUTION = configDefaults.getBoolean(PARAM_KEY_LAZY_SUBSTITUTION, false);
+		// Check if background reload enabled
+		RELOAD_BACKGROUND = configDefaults.getBoolean(PARAM_KEY_RELOAD_BACKGROUND, false);
 	}
 
 	/**
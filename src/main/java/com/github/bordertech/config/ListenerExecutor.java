@@ -0,0 +1,245 @@
+package com.github.bordertech.config;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.SimpleLog;
+
+/**
+ * Dispatches property change events to listeners on background threads.
+ * <p>
+ * Each listener receives its events one at a time and in the order they were dispatched. Different listeners can be
+ * notified at the same time, up to the maximum number of threads. Virtual threads are used where the JVM supports them,
+ * otherwise daemon threads are used. Idle threads are not kept.
+ * </p>
+ * <p>
+ * Events waiting for a slow listener are coalesced, so the waiting events can not grow without limit. An event for a
+ * property that already has an event waiting replaces it in its place, keeping the old value of the waiting event and
+ * the new value of the latest event, and if the property has changed back to the old value the waiting event is
+ * dropped. A listener therefore has at most one waiting event for each property, and the pool has at most one task
+ * waiting for each listener.
+ * </p>
+ *
+ * @since 1.0.9
+ */
+final class ListenerExecutor {
+
+	/**
+	 * Logger for listener errors.
+	 */
+	private static final Log LOG = new SimpleLog("ListenerExecutor");
+
+	/**
+	 * How long an idle thread is kept (in seconds).
+	 */
+	private static final long KEEP_ALIVE = 60;
+
+	/**
+	 * Runs the listeners.
+	 */
+	private final Executor executor;
+
+	/**
+	 * The events for each listener. A listener is only present while it is being notified. The events are only
+	 * accessed while the map entry is locked.
+	 */
+	private final Map<PropertyChangeListener, ListenerEvents> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * @param maxThreads the maximum number of threads used to notify listeners, with at least one thread used
+	 */
+	ListenerExecutor(final int maxThreads) {
+		int threads = Math.max(1, maxThreads);
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), createThreadFactory());
+		pool.allowCoreThreadTimeOut(true);
+		this.executor = pool;
+	}
+
+	/**
+	 * @param executor runs the listeners
+	 */
+	ListenerExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Dispatch an event to a listener. The listener is notified after any events already dispatched to it, and the
+	 * event is coalesced with a waiting event for the same property.
+	 *
+	 * @param listener the listener to notify
+	 * @param event the event
+	 */
+	void dispatch(final PropertyChangeListener listener, final PropertyChangeEvent event) {
+		EventHolder started = new EventHolder();
+		pending.compute(listener, (key, events) -> {
+			if (events == null) {
+				started.event = event;
+				return new ListenerEvents(event);
+			}
+			events.add(event);
+			return events;
+		});
+		// Start notifying the listener if it is not already being notified
+		if (started.event != null) {
+			executor.execute(() -> drain(listener));
+		}
+	}
+
+	/**
+	 * Notify the listener of its waiting events, until there are none left.
+	 *
+	 * @param listener the listener to notify
+	 */
+	private void drain(final PropertyChangeListener listener) {
+		PropertyChangeEvent event = peek(listener);
+		while (event != null) {
+			try {
+				listener.propertyChange(event);
+			} catch (RuntimeException e) {
+				LOG.error("Property change listener " + listener + " failed. " + e.getMessage(), e);
+			}
+			event = next(listener);
+		}
+	}
+
+	/**
+	 * @param listener the listener being notified
+	 * @return the first waiting event for the listener
+	 */
+	private PropertyChangeEvent peek(final PropertyChangeListener listener) {
+		EventHolder first = new EventHolder();
+		pending.computeIfPresent(listener, (key, events) -> {
+			first.event = events.current;
+			return events;
+		});
+		return first.event;
+	}
+
+	/**
+	 * Remove the event the listener has been notified of.
+	 *
+	 * @param listener the listener being notified
+	 * @return the next waiting event for the listener, or null if there are none left
+	 */
+	private PropertyChangeEvent next(final PropertyChangeListener listener) {
+		EventHolder next = new EventHolder();
+		pending.computeIfPresent(listener, (key, events) -> {
+			next.event = events.next();
+			// Remove the listener once it has no waiting events
+			return next.event == null ? null : events;
+		});
+		return next.event;
+	}
+
+	/**
+	 * @return the factory for the threads used to notify listeners
+	 */
+	private static ThreadFactory createThreadFactory() {
+		ThreadFactory virtual = createVirtualThreadFactory();
+		if (virtual != null) {
+			return virtual;
+		}
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, "bordertech-config-listener-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * @return a virtual thread factory, or null if the JVM does not support virtual threads
+	 */
+	private static ThreadFactory createVirtualThreadFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "bordertech-config-listener-", 1L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException | InvocationTargetException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The events for a listener being notified.
+	 */
+	private static final class ListenerEvents {
+
+		/**
+		 * The event the listener is being notified of.
+		 */
+		private PropertyChangeEvent current;
+
+		/**
+		 * The waiting events, by property name in the order they were dispatched.
+		 */
+		private final Map<String, PropertyChangeEvent> waiting = new LinkedHashMap<>();
+
+		/**
+		 * @param current the event the listener is being notified of
+		 */
+		ListenerEvents(final PropertyChangeEvent current) {
+			this.current = current;
+		}
+
+		/**
+		 * Add a waiting event, coalescing it with a waiting event for the same property. A property that has changed
+		 * back has no waiting event.
+		 *
+		 * @param event the event
+		 */
+		void add(final PropertyChangeEvent event) {
+			String name = event.getPropertyName();
+			PropertyChangeEvent earlier = waiting.get(name);
+			if (earlier == null) {
+				waiting.put(name, event);
+			} else if (name != null && Objects.equals(earlier.getOldValue(), event.getNewValue())) {
+				// Changed back, so there is no change to notify. Events without a property name are always notified.
+				waiting.remove(name);
+			} else {
+				// Keeps the place of the earlier event
+				waiting.put(name, new PropertyChangeEvent(event.getSource(), name, earlier.getOldValue(), event.getNewValue()));
+			}
+		}
+
+		/**
+		 * @return the next waiting event, which is now the current event, or null if there are none left
+		 */
+		PropertyChangeEvent next() {
+			Iterator<PropertyChangeEvent> events = waiting.values().iterator();
+			if (events.hasNext()) {
+				current = events.next();
+				events.remove();
+			} else {
+				current = null;
+			}
+			return current;
+		}
+	}
+
+	/**
+	 * Holds an event found while updating the waiting events.
+	 */
+	private static final class EventHolder {
+
+		/**
+		 * The next event.
+		 */
+		private PropertyChangeEvent event;
+	}
+
+}
@@ -0,0 +1,275 @@
+package com.github.bordertech.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * A properties resource that has been read and parsed, with the details used to check if it has changed.
+ * <p>
+ * The parsed entries are kept in the order they appear in the resource, so they can be loaded again without reading
+ * or parsing the resource when it has not changed. The content itself is never held in memory: it is streamed through
+ * the parser, and a digest of the content is calculated as it is read. The digest is used to check if the content has
+ * changed or is the same as another resource.
+ * </p>
+ * <p>
+ * The size and last modified time of a file are only trusted if the file was last modified well before it was read.
+ * A file modified within the file system's time granularity of being read could be changed again without its last
+ * modified time changing, so it is read again and its digest is compared instead. The entries can also be dropped
+ * with {@link #withoutEntries()} to save memory, in which case the resource is always read and parsed again.
+ * </p>
+ * <p>
+ * File resources are streamed via a {@link FileChannel}, and other resources (such as class path and jar resources)
+ * via their stream. Files are not memory mapped, as a mapping is only released when it is garbage collected and would
+ * lock the file against edits on some platforms.
+ * </p>
+ *
+ * @since 1.0.9
+ */
+final class LoadedResource {
+
+	/**
+	 * The coarsest last modified time granularity of the supported file systems (in milli seconds), which is two
+	 * seconds on FAT file systems.
+	 */
+	static final long MODIFIED_GRANULARITY = 2000;
+
+	/**
+	 * The resource size, or -1 if not known.
+	 */
+	private final long size;
+
+	/**
+	 * The resource last modified time, or 0 if not known.
+	 */
+	private final long lastModified;
+
+	/**
+	 * The time the resource was read.
+	 */
+	private final long readTime;
+
+	/**
+	 * The length of the resource content.
+	 */
+	private final long length;
+
+	/**
+	 * The digest of the resource content.
+	 */
+	private final byte[] digest;
+
+	/**
+	 * The parsed entries, in the order they appear in the resource, or null if they have been dropped.
+	 */
+	private final List<Pair<String, String>> entries;
+
+	/**
+	 * @param size the resource size, or -1 if not known
+	 * @param lastModified the resource last modified time, or 0 if not known
+	 * @param readTime the time the resource was read
+	 * @param length the length of the resource content
+	 * @param digest the digest of the resource content
+	 * @param entries the parsed entries, or null if dropped
+	 */
+	private LoadedResource(final long size, final long lastModified, final long readTime, final long length,
+			final byte[] digest, final List<Pair<String, String>> entries) {
+		this.size = size;
+		this.lastModified = lastModified;
+		this.readTime = readTime;
+		this.length = length;
+		this.digest = digest;
+		this.entries = entries;
+	}
+
+	/**
+	 * Read a resource. If the resource is a file that has the same size and last modified time as when it was
+	 * previously loaded (see {@link #isUnchanged(long, long)}), and the previously parsed entries have been kept, the
+	 * previously loaded resource is returned without reading the file. Other resources with previously parsed entries
+	 * are read once to check their digest before they are parsed, and are only read again and parsed if the content
+	 * has changed. Otherwise the resource is read and parsed, and the previously parsed entries are kept if the content
+	 * has not changed.
+	 *
+	 * @param file the resource file, or null if the resource is not a file
+	 * @param opener opens the resource content, if the resource is not a file
+	 * @param previous the resource when it was previously loaded, or null
+	 * @return the loaded resource
+	 * @throws IOException if the resource could not be read or parsed
+	 */
+	static LoadedResource read(final File file, final Opener opener, final LoadedResource previous) throws IOException {
+		long currentSize = file == null ? -1 : file.length();
+		long currentLastModified = file == null ? 0 : file.lastModified();
+		if (previous != null && file != null && previous.entries != null
+				&& previous.isUnchanged(currentSize, currentLastModified)) {
+			return previous;
+		}
+		if (file != null) {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				return read(Channels.newInputStream(channel), currentSize, currentLastModified, previous);
+			}
+		}
+		if (previous != null && previous.entries != null) {
+			// The size and time of other resources are not known, so check the digest before parsing the content
+			LoadedResource unchanged;
+			try (InputStream in = opener.open()) {
+				unchanged = readUnchanged(in, previous);
+			}
+			if (unchanged != null) {
+				return unchanged;
+			}
+		}
+		try (InputStream in = opener.open()) {
+			return read(in, currentSize, currentLastModified, previous);
+		}
+	}
+
+	/**
+	 * Read the resource content without parsing it, to check if it is the same as the previously loaded content.
+	 *
+	 * @param in the resource content, which is not closed
+	 * @param previous the resource when it was previously loaded, with its parsed entries
+	 * @return the loaded resource with the previously parsed entries, or null if the content has changed
+	 * @throws IOException if the resource could not be read
+	 */
+	private static LoadedResource readUnchanged(final InputStream in, final LoadedResource previous) throws IOException {
+		long readTime = System.currentTimeMillis();
+		MessageDigest messageDigest = createDigest();
+		long length = IOUtils.copyLarge(new DigestInputStream(in, messageDigest), NullOutputStream.NULL_OUTPUT_STREAM);
+		byte[] digest = messageDigest.digest();
+		if (previous.length == length && MessageDigest.isEqual(previous.digest, digest)) {
+			return new LoadedResource(-1, 0, readTime, length, digest, previous.entries);
+		}
+		return null;
+	}
+
+	/**
+	 * Create a loaded resource from its content.
+	 *
+	 * @param content the resource content
+	 * @param size the resource size, or -1 if not known
+	 * @param lastModified the resource last modified time, or 0 if not known
+	 * @param previous the resource when it was previously loaded, or null
+	 * @return the loaded resource
+	 * @throws IOException if the resource could not be parsed
+	 */
+	static LoadedResource create(final byte[] content, final long size, final long lastModified, final LoadedResource previous)
+			throws IOException {
+		return read(new ByteArrayInputStream(content), size, lastModified, previous);
+	}
+
+	/**
+	 * Parse the resource content as it is read, calculating its length and digest at the same time.
+	 *
+	 * @param in the resource content, which is not closed
+	 * @param size the resource size, or -1 if not known
+	 * @param lastModified the resource last modified time, or 0 if not known
+	 * @param previous the resource when it was previously loaded, or null
+	 * @return the loaded resource, with the previously parsed entries if the content has not changed
+	 * @throws IOException if the resource could not be read or parsed
+	 */
+	private static LoadedResource read(final InputStream in, final long size, final long lastModified, final LoadedResource previous)
+			throws IOException {
+		long readTime = System.currentTimeMillis();
+		MessageDigest messageDigest = createDigest();
+		CountingInputStream counted = new CountingInputStream(new DigestInputStream(in, messageDigest));
+		List<Pair<String, String>> entries = parse(counted);
+		long length = counted.getByteCount();
+		byte[] digest = messageDigest.digest();
+		if (previous != null && previous.entries != null && previous.length == length
+				&& MessageDigest.isEqual(previous.digest, digest)) {
+			// Keep the entries already loaded rather than holding on to a second copy
+			return new LoadedResource(size, lastModified, readTime, length, digest, previous.entries);
+		}
+		return new LoadedResource(size, lastModified, readTime, length, digest, entries);
+	}
+
+	/**
+	 * @return the digest used to check if resources have the same content
+	 */
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 digest not available", e);
+		}
+	}
+
+	/**
+	 * @param content the resource content
+	 * @return the parsed entries, in the order they appear in the content
+	 * @throws IOException if the content could not be read
+	 */
+	private static List<Pair<String, String>> parse(final InputStream content) throws IOException {
+		List<Pair<String, String>> entries = new ArrayList<>();
+		PropertiesParser.parse(content, (key, value) -> entries.add(new ImmutablePair<>(key, value)));
+		return Collections.unmodifiableList(entries);
+	}
+
+	/**
+	 * A file resource has not changed if its size and last modified time are the same, and it was last modified more
+	 * than the {@link #MODIFIED_GRANULARITY} before it was read. Otherwise a change made in the same time tick as the
+	 * read, which keeps the same size, would be missed.
+	 *
+	 * @param currentSize the current resource size
+	 * @param currentLastModified the current resource last modified time
+	 * @return true if the resource has not changed
+	 */
+	boolean isUnchanged(final long currentSize, final long currentLastModified) {
+		return lastModified > 0 && size == currentSize && lastModified == currentLastModified
+				&& readTime - lastModified > MODIFIED_GRANULARITY;
+	}
+
+	/**
+	 * @return this resource without its parsed entries, which only keeps the details used to check if it has changed
+	 */
+	LoadedResource withoutEntries() {
+		return new LoadedResource(size, lastModified, readTime, length, digest, null);
+	}
+
+	/**
+	 * Check if another resource has the same content. The digests are only compared if the content lengths are the
+	 * same.
+	 *
+	 * @param other the other resource, or null
+	 * @return true if the other resource has the same content
+	 */
+	boolean isSameContent(final LoadedResource other) {
+		return other != null && length == other.length && MessageDigest.isEqual(digest, other.digest);
+	}
+
+	/**
+	 * @return the parsed entries, in the order they appear in the resource, or null if they have been dropped
+	 */
+	List<Pair<String, String>> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Opens the content of a resource.
+	 */
+	@FunctionalInterface
+	interface Opener {
+
+		/**
+		 * @return the resource content stream
+		 * @throws IOException an IO Exception occurred
+		 */
+		InputStream open() throws IOException;
+	}
+
+}
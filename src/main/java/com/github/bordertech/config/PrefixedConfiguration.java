@@ -0,0 +1,195 @@
+package com.github.bordertech.config;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.apache.commons.configuration.PropertyConverter;
+
+/**
+ * A read-only view of the properties of a {@link DefaultConfiguration} with keys starting with a prefix.
+ * <p>
+ * The keys in the view keep the prefix. The view does not copy the properties, it reads the current snapshot of the
+ * configuration it was created from, so it always reflects the latest properties.
+ * </p>
+ * <p>
+ * Like a {@link org.apache.commons.configuration.MapConfiguration}, property values are split on the list delimiter.
+ * The values are split once for each snapshot, when the view is first read after the properties change, rather than
+ * on every read.
+ * </p>
+ * <p>
+ * The view is shared between callers, so its settings can not be changed either.
+ * </p>
+ *
+ * @since 1.0.9
+ */
+final class PrefixedConfiguration extends AbstractConfiguration {
+
+	/**
+	 * Supplies the current snapshot of the underlying configuration.
+	 */
+	private final Supplier<ConfigurationSnapshot> snapshot;
+
+	/**
+	 * The key prefix.
+	 */
+	private final String prefix;
+
+	/**
+	 * The split property values of the snapshot last read.
+	 */
+	private final AtomicReference<SplitValues> values = new AtomicReference<>();
+
+	/**
+	 * @param snapshot supplies the current snapshot of the underlying configuration
+	 * @param prefix the key prefix
+	 */
+	PrefixedConfiguration(final Supplier<ConfigurationSnapshot> snapshot, final String prefix) {
+		this.snapshot = snapshot;
+		this.prefix = prefix;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return getValues().isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsKey(final String key) {
+		return getValues().containsKey(key);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getProperty(final String key) {
+		return getValues().get(key);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<String> getKeys() {
+		return getValues().keySet().iterator();
+	}
+
+	/**
+	 * @return the split property values of the current snapshot, by key in key order
+	 */
+	private Map<String, Object> getValues() {
+		ConfigurationSnapshot current = snapshot.get();
+		SplitValues split = values.get();
+		if (split == null || split.snapshot != current) {
+			split = new SplitValues(current, split(current));
+			values.set(split);
+		}
+		return split.values;
+	}
+
+	/**
+	 * @param current the snapshot
+	 * @return the property values with the prefix split on the list delimiter, by key in key order
+	 */
+	private Map<String, Object> split(final ConfigurationSnapshot current) {
+		Map<String, Object> split = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : current.getPrefixed(prefix).entrySet()) {
+			String value = entry.getValue();
+			if (value == null || isDelimiterParsingDisabled()) {
+				split.put(entry.getKey(), value);
+			} else {
+				List<String> list = PropertyConverter.split(value, getListDelimiter(), true);
+				split.put(entry.getKey(), list.size() > 1 ? Collections.unmodifiableList(list) : list.get(0));
+			}
+		}
+		return Collections.unmodifiableMap(split);
+	}
+
+	/**
+	 * The view is read-only.
+	 *
+	 * @param delimiter the list delimiter
+	 */
+	@Override
+	public void setListDelimiter(final char delimiter) {
+		throw new UnsupportedOperationException("Subset of configuration is read-only.");
+	}
+
+	/**
+	 * The view is read-only.
+	 *
+	 * @param delimiterParsingDisabled true to disable splitting property values
+	 */
+	@Override
+	public void setDelimiterParsingDisabled(final boolean delimiterParsingDisabled) {
+		throw new UnsupportedOperationException("Subset of configuration is read-only.");
+	}
+
+	/**
+	 * The view is read-only.
+	 *
+	 * @param throwExceptionOnMissing true to throw an exception for missing properties
+	 */
+	@Override
+	public void setThrowExceptionOnMissing(final boolean throwExceptionOnMissing) {
+		throw new UnsupportedOperationException("Subset of configuration is read-only.");
+	}
+
+	/**
+	 * The view is read-only.
+	 *
+	 * @param key the property key
+	 * @param value the property value
+	 */
+	@Override
+	protected void addPropertyDirect(final String key, final Object value) {
+		throw new UnsupportedOperationException("Subset of configuration is read-only.");
+	}
+
+	/**
+	 * The view is read-only.
+	 *
+	 * @param key the property key
+	 */
+	@Override
+	protected void clearPropertyDirect(final String key) {
+		throw new UnsupportedOperationException("Subset of configuration is read-only.");
+	}
+
+	/**
+	 * The split property values of a snapshot.
+	 */
+	private static final class SplitValues {
+
+		/**
+		 * The snapshot the values were split from.
+		 */
+		private final ConfigurationSnapshot snapshot;
+
+		/**
+		 * The split property values, by key.
+		 */
+		private final Map<String, Object> values;
+
+		/**
+		 * @param snapshot the snapshot the values were split from
+		 * @param values the split property values, by key
+		 */
+		SplitValues(final ConfigurationSnapshot snapshot, final Map<String, Object> values) {
+			this.snapshot = snapshot;
+			this.values = values;
+		}
+	}
+
+}
@@ -0,0 +1,318 @@
+package com.github.bordertech.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Parses properties content with the same syntax as {@link java.util.Properties#load(java.io.InputStream)}.
+ * <p>
+ * The content is read as ISO-8859-1 from a stream through a small buffer, so the whole content is never held in memory,
+ * and each entry is passed to a handler as soon as it has been read, rather than being put into a
+ * {@link java.util.Properties}. Comments, line continuations, the key and value
+ * separators and the escapes (including <code>\\uxxxx</code>) are handled the same way. The configuration extensions
+ * (the <code>include</code> and <code>includeAfter</code> directives, <code>key+=value</code> and
+ * <code>key+ value</code>) are entries like any other, and are acted on by the handler.
+ * </p>
+ *
+ * @since 1.0.9
+ */
+final class PropertiesParser {
+
+	/**
+	 * The initial size of the line buffers.
+	 */
+	private static final int INITIAL_LINE_LENGTH = 256;
+
+	/**
+	 * The size of the buffer the content is read through.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The content being parsed.
+	 */
+	private final InputStream in;
+
+	/**
+	 * The content read but not yet parsed.
+	 */
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * The position of the next byte to parse in the buffer.
+	 */
+	private int pos;
+
+	/**
+	 * The number of bytes in the buffer.
+	 */
+	private int limit;
+
+	/**
+	 * The current logical line, with continuations joined.
+	 */
+	private char[] line = new char[INITIAL_LINE_LENGTH];
+
+	/**
+	 * Holds a key or value while its escapes are converted.
+	 */
+	private char[] converted = new char[INITIAL_LINE_LENGTH];
+
+	/**
+	 * @param in the content being parsed
+	 */
+	private PropertiesParser(final InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Parse properties content, reading the stream to its end. The stream is not closed.
+	 *
+	 * @param content the properties content
+	 * @param handler receives each key and value, in the order they appear
+	 * @throws IOException if the content could not be read
+	 * @throws IllegalArgumentException if the content contains a malformed <code>\\uxxxx</code> escape
+	 */
+	static void parse(final InputStream content, final BiConsumer<String, String> handler) throws IOException {
+		PropertiesParser parser = new PropertiesParser(content);
+		int length;
+		while ((length = parser.readLine()) >= 0) {
+			parser.parseLine(length, handler);
+		}
+	}
+
+	/**
+	 * Make sure there is content in the buffer to parse.
+	 *
+	 * @return true if there is content to parse, or false at the end of the content
+	 * @throws IOException if the content could not be read
+	 */
+	private boolean hasRemaining() throws IOException {
+		while (pos == limit) {
+			int read = in.read(buffer);
+			if (read < 0) {
+				return false;
+			}
+			pos = 0;
+			limit = read;
+		}
+		return true;
+	}
+
+	/**
+	 * Read the next logical line into the line buffer. Blank lines and comments are skipped, continued lines are
+	 * joined and the leading white space of each line is removed.
+	 *
+	 * @return the length of the line, or -1 if there are no more lines
+	 * @throws IOException if the content could not be read
+	 */
+	private int readLine() throws IOException {
+		int len = 0;
+		boolean skipWhiteSpace = true;
+		boolean isCommentLine = false;
+		boolean isNewLine = true;
+		boolean appendedLineBegin = false;
+		boolean precedingBackslash = false;
+		boolean skipLF = false;
+
+		while (true) {
+			if (!hasRemaining()) {
+				if (len == 0 || isCommentLine) {
+					return -1;
+				}
+				return precedingBackslash ? len - 1 : len;
+			}
+			char c = (char) (buffer[pos++] & 0xFF);
+
+			if (skipLF) {
+				skipLF = false;
+				if (c == '\n') {
+					continue;
+				}
+			}
+			if (skipWhiteSpace) {
+				if (isWhiteSpace(c)) {
+					continue;
+				}
+				if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+					continue;
+				}
+				skipWhiteSpace = false;
+				appendedLineBegin = false;
+			}
+			if (isNewLine) {
+				isNewLine = false;
+				if (c == '#' || c == '!') {
+					isCommentLine = true;
+					continue;
+				}
+			}
+
+			if (c != '\n' && c != '\r') {
+				if (!isCommentLine) {
+					if (len == line.length) {
+						line = Arrays.copyOf(line, len * 2);
+					}
+					line[len++] = c;
+					precedingBackslash = c == '\\' && !precedingBackslash;
+				}
+				continue;
+			}
+
+			// Reached the end of a line
+			if (isCommentLine || len == 0) {
+				isCommentLine = false;
+				isNewLine = true;
+				skipWhiteSpace = true;
+				precedingBackslash = false;
+				len = 0;
+				continue;
+			}
+			if (!hasRemaining()) {
+				return precedingBackslash ? len - 1 : len;
+			}
+			if (!precedingBackslash) {
+				if (c == '\r' && buffer[pos] == '\n') {
+					pos++;
+				}
+				return len;
+			}
+			// The line continues on the next line
+			len--;
+			skipWhiteSpace = true;
+			appendedLineBegin = true;
+			precedingBackslash = false;
+			skipLF = c == '\r';
+		}
+	}
+
+	/**
+	 * Split the line into its key and value and pass them to the handler.
+	 *
+	 * @param limit the length of the line
+	 * @param handler receives the key and value
+	 */
+	private void parseLine(final int limit, final BiConsumer<String, String> handler) {
+		int keyLen = 0;
+		int valueStart = limit;
+		boolean hasSep = false;
+		boolean precedingBackslash = false;
+
+		// The key ends at the first unescaped separator or white space
+		while (keyLen < limit) {
+			char c = line[keyLen];
+			if ((c == '=' || c == ':') && !precedingBackslash) {
+				valueStart = keyLen + 1;
+				hasSep = true;
+				break;
+			}
+			if (isWhiteSpace(c) && !precedingBackslash) {
+				valueStart = keyLen + 1;
+				break;
+			}
+			precedingBackslash = c == '\\' && !precedingBackslash;
+			keyLen++;
+		}
+
+		// The value starts after any white space and one separator
+		while (valueStart < limit) {
+			char c = line[valueStart];
+			if (!isWhiteSpace(c)) {
+				if (!hasSep && (c == '=' || c == ':')) {
+					hasSep = true;
+				} else {
+					break;
+				}
+			}
+			valueStart++;
+		}
+
+		String key = convert(0, keyLen);
+		String value = convert(valueStart, limit - valueStart);
+		handler.accept(key, value);
+	}
+
+	/**
+	 * Convert the escapes in part of the line.
+	 *
+	 * @param off the start of the part
+	 * @param len the length of the part
+	 * @return the part with its escapes converted
+	 */
+	private String convert(final int off, final int len) {
+		int end = off + len;
+		int firstEscape = off;
+		while (firstEscape < end && line[firstEscape] != '\\') {
+			firstEscape++;
+		}
+		// Most keys and values have no escapes
+		if (firstEscape == end) {
+			return new String(line, off, len);
+		}
+
+		if (converted.length < len) {
+			converted = new char[Math.max(len, converted.length * 2)];
+		}
+		int outLen = firstEscape - off;
+		System.arraycopy(line, off, converted, 0, outLen);
+		int pos = firstEscape;
+		while (pos < end) {
+			char c = line[pos++];
+			if (c != '\\') {
+				converted[outLen++] = c;
+				continue;
+			}
+			if (pos == end) {
+				break;
+			}
+			c = line[pos++];
+			if (c == 'u') {
+				if (pos + 4 > end) {
+					throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+				}
+				int value = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(line[pos++], 16);
+					if (digit < 0) {
+						throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+					}
+					value = (value << 4) + digit;
+				}
+				converted[outLen++] = (char) value;
+			} else {
+				converted[outLen++] = unescape(c);
+			}
+		}
+		return new String(converted, 0, outLen);
+	}
+
+	/**
+	 * @param c the escaped character
+	 * @return the character represented by the escape
+	 */
+	private static char unescape(final char c) {
+		switch (c) {
+			case 't':
+				return '\t';
+			case 'r':
+				return '\r';
+			case 'n':
+				return '\n';
+			case 'f':
+				return '\f';
+			default:
+				return c;
+		}
+	}
+
+	/**
+	 * @param c the character to check
+	 * @return true if the character is properties white space
+	 */
+	private static boolean isWhiteSpace(final char c) {
+		return c == ' ' || c == '\t' || c == '\f';
+	}
+
+}
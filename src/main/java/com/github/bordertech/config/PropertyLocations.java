@@ -0,0 +1,133 @@
+package com.github.bordertech.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the locations where each property was defined.
+ * <p>
+ * Each distinct location is stored once and given an id, and each property keeps the ids of its locations in the order
+ * they were recorded. A location recorded again straight after itself is only kept once, so a property set again and
+ * again at runtime does not grow its history. The readable history of a property is only built when it is asked for,
+ * for example when the properties are dumped.
+ * </p>
+ * <p>
+ * Locations are kept until cleared, so they should come from a fixed set such as the resources loaded and fixed labels
+ * for runtime changes, and not include values that change at runtime. A substitution is recorded with the value
+ * before substitution, which is kept once for each property (the latest one) rather than as a shared location.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @since 1.0.9
+ */
+final class PropertyLocations {
+
+	/**
+	 * The distinct locations, by id.
+	 */
+	private final List<String> locations = new ArrayList<>();
+
+	/**
+	 * The ids of the distinct locations.
+	 */
+	private final Map<String, Integer> locationIds = new HashMap<>();
+
+	/**
+	 * The location id recorded for a substitution.
+	 */
+	private static final int SUBSTITUTION = -1;
+
+	/**
+	 * The location ids of each property, in the order they were recorded.
+	 */
+	private final Map<String, int[]> history = new HashMap<>();
+
+	/**
+	 * The latest value before substitution of each substituted property.
+	 */
+	private final Map<String, String> templates = new HashMap<>();
+
+	/**
+	 * Record a location where a property was defined, unless it is the last location recorded for the property.
+	 *
+	 * @param key the property key
+	 * @param location the location of the property
+	 */
+	void add(final String key, final String location) {
+		Integer id = locationIds.get(location);
+		if (id == null) {
+			id = locations.size();
+			locations.add(location);
+			locationIds.put(location, id);
+		}
+		addId(key, id);
+	}
+
+	/**
+	 * Record a substitution of a property value, unless it is the last location recorded for the property.
+	 *
+	 * @param key the property key
+	 * @param template the value before substitution
+	 */
+	void addSubstitution(final String key, final String template) {
+		templates.put(key, template);
+		addId(key, SUBSTITUTION);
+	}
+
+	/**
+	 * @param key the property key
+	 * @param id the location id
+	 */
+	private void addId(final String key, final int id) {
+		int[] ids = history.get(key);
+		if (ids == null) {
+			ids = new int[]{id};
+		} else if (ids[ids.length - 1] == id) {
+			return;
+		} else {
+			ids = Arrays.copyOf(ids, ids.length + 1);
+			ids[ids.length - 1] = id;
+		}
+		history.put(key, ids);
+	}
+
+	/**
+	 * @param key the property key
+	 * @return the locations where the property was defined, in reverse order (so the first entry is the defining
+	 * entry) and separated by "; ", or null if there are none
+	 */
+	String getHistory(final String key) {
+		int[] ids = history.get(key);
+		if (ids == null) {
+			return null;
+		}
+		StringBuilder info = new StringBuilder();
+		for (int i = ids.length - 1; i >= 0; i--) {
+			if (ids[i] == SUBSTITUTION) {
+				info.append("substitution of ${").append(templates.get(key)).append('}');
+			} else {
+				info.append(locations.get(ids[i]));
+			}
+			if (i > 0) {
+				info.append("; ");
+			}
+		}
+		return info.toString();
+	}
+
+	/**
+	 * Remove all the recorded locations.
+	 */
+	void clear() {
+		locations.clear();
+		locationIds.clear();
+		history.clear();
+		templates.clear();
+	}
+
+}
@@ -0,0 +1,503 @@
+package com.github.bordertech.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import org.apache.commons.text.StringSubstitutor;
+
+/**
+ * Substitutes <code>${key}</code> references in property values with the values of the referenced properties.
+ * <p>
+ * The references in each value are parsed once, and the values are resolved in dependency order so each value is only
+ * resolved once, however many other values refer to it. Values can be resolved all at once, or one at a time as they
+ * are needed. When values change, only the changed values and the values that depend on them are resolved again. The
+ * syntax is the same as {@link StringSubstitutor}: a
+ * reference to a missing property is left as it is, <code>${key:-default}</code> gives a default value and
+ * <code>$${key}</code> is not substituted.
+ * </p>
+ * <p>
+ * Values that refer to themselves, directly or via other values, cannot be resolved. They are left as they are and
+ * their keys are reported by {@link #getCyclicKeys()}.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @since 1.0.9
+ */
+final class PropertySubstitutor {
+
+	/**
+	 * The start of a reference.
+	 */
+	private static final String PREFIX = "${";
+
+	/**
+	 * The end of a reference.
+	 */
+	private static final char SUFFIX = '}';
+
+	/**
+	 * Escapes the start of a reference.
+	 */
+	private static final char ESCAPE = '$';
+
+	/**
+	 * Separates the key and the default value of a reference.
+	 */
+	private static final String DEFAULT_DELIMITER = ":-";
+
+	/**
+	 * The property values to substitute.
+	 */
+	private final Map<String, String> values;
+
+	/**
+	 * The parsed values that contain references, by key.
+	 */
+	private final Map<String, Template> templates = new HashMap<>();
+
+	/**
+	 * The resolved values, by key.
+	 */
+	private final Map<String, String> resolved = new HashMap<>();
+
+	/**
+	 * The keys of the parsed values that refer to each key.
+	 */
+	private final Map<String, Set<String>> dependents = new HashMap<>();
+
+	/**
+	 * The keys of the values that could not be resolved.
+	 */
+	private final Set<String> cyclicKeys = new TreeSet<>();
+
+	/**
+	 * @param values the property values to substitute, which are only changed by {@link #update(Map)}
+	 */
+	PropertySubstitutor(final Map<String, String> values) {
+		this.values = values;
+	}
+
+	/**
+	 * Resolve the references in all the property values.
+	 *
+	 * @return the values changed by substitution, by key
+	 */
+	Map<String, String> substitute() {
+		Map<String, String> changed = new HashMap<>();
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			String value = entry.getValue();
+			if (value != null && value.contains(PREFIX)) {
+				String substituted = resolve(entry.getKey());
+				if (!substituted.equals(value)) {
+					changed.put(entry.getKey(), substituted);
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Resolve the references in a property value. The values it depends on are resolved first, and every resolved
+	 * value is kept so it is only resolved once.
+	 *
+	 * @param key the property key
+	 * @return the resolved value, or null if the property does not exist
+	 */
+	String resolve(final String key) {
+		String value = resolved.get(key);
+		if (value != null) {
+			return value;
+		}
+		if (getTemplate(key) == null) {
+			return values.get(key);
+		}
+
+		// Depth first, resolving each value after the values it refers to
+		Deque<String> path = new ArrayDeque<>();
+		Set<String> onPath = new HashSet<>();
+		path.push(key);
+		onPath.add(key);
+		while (!path.isEmpty()) {
+			String current = path.peek();
+			String next = findUnresolvedReference(current);
+			if (next == null) {
+				path.pop();
+				onPath.remove(current);
+				resolved.put(current, render(current));
+			} else if (onPath.contains(next)) {
+				// Found a cycle, so the values on the path depend on it
+				for (String pending : path) {
+					resolved.put(pending, fallback(pending));
+				}
+				break;
+			} else {
+				path.push(next);
+				onPath.add(next);
+			}
+		}
+		return resolved.get(key);
+	}
+
+	/**
+	 * Change property values, and resolve them again along with the values that depend on them, directly or via other
+	 * values. The other resolved values are kept.
+	 *
+	 * @param changed the new property values by key, with a null value if the property has been removed
+	 * @return the resolved values of the changed properties and the properties that depend on them, by key, with a
+	 * null value if the property has been removed
+	 */
+	Map<String, String> update(final Map<String, String> changed) {
+		Deque<String> pending = new ArrayDeque<>();
+		for (Map.Entry<String, String> entry : changed.entrySet()) {
+			String key = entry.getKey();
+			if (entry.getValue() == null) {
+				values.remove(key);
+			} else {
+				values.put(key, entry.getValue());
+			}
+			Template template = templates.remove(key);
+			if (template != null) {
+				for (String reference : template.getReferences()) {
+					removeDependent(reference, key);
+				}
+			}
+			pending.add(key);
+		}
+
+		// The changed keys and the keys that depend on them, via the reverse dependency index
+		Set<String> affected = new LinkedHashSet<>();
+		while (!pending.isEmpty()) {
+			String key = pending.poll();
+			if (affected.add(key)) {
+				pending.addAll(dependents.getOrDefault(key, Collections.emptySet()));
+			}
+		}
+		resolved.keySet().removeAll(affected);
+		cyclicKeys.removeAll(affected);
+
+		Map<String, String> updated = new HashMap<>();
+		for (String key : affected) {
+			updated.put(key, resolve(key));
+		}
+		return updated;
+	}
+
+	/**
+	 * Find the values that depend on the given keys, directly or via other values. The references in all the values are
+	 * parsed, but no values are resolved.
+	 *
+	 * @param keys the property keys
+	 * @return the keys of the values that depend on the given keys, not including the given keys themselves
+	 */
+	Set<String> getDependents(final Collection<String> keys) {
+		for (String key : values.keySet()) {
+			getTemplate(key);
+		}
+		Set<String> found = new HashSet<>();
+		Deque<String> pending = new ArrayDeque<>(keys);
+		while (!pending.isEmpty()) {
+			for (String dependent : dependents.getOrDefault(pending.poll(), Collections.emptySet())) {
+				if (found.add(dependent)) {
+					pending.add(dependent);
+				}
+			}
+		}
+		found.removeAll(keys);
+		return found;
+	}
+
+	/**
+	 * Remove all the property values.
+	 */
+	void clear() {
+		values.clear();
+		templates.clear();
+		resolved.clear();
+		dependents.clear();
+		cyclicKeys.clear();
+	}
+
+	/**
+	 * @param key the property key
+	 * @return the property value before substitution, or null if the property does not exist
+	 */
+	String getValue(final String key) {
+		return values.get(key);
+	}
+
+	/**
+	 * @return the keys of the values that could not be resolved because they refer to themselves, in key order
+	 */
+	Set<String> getCyclicKeys() {
+		return Collections.unmodifiableSet(cyclicKeys);
+	}
+
+	/**
+	 * @param key the property key
+	 * @return the parsed value, or null if the value does not contain references
+	 */
+	private Template getTemplate(final String key) {
+		Template template = templates.get(key);
+		if (template == null) {
+			String value = values.get(key);
+			if (value == null || !value.contains(PREFIX)) {
+				return null;
+			}
+			template = Template.parse(value);
+			templates.put(key, template);
+			for (String reference : template.getReferences()) {
+				dependents.computeIfAbsent(reference, k -> new HashSet<>()).add(key);
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * @param reference the referenced key
+	 * @param key the key of the value that no longer refers to it
+	 */
+	private void removeDependent(final String reference, final String key) {
+		Set<String> keys = dependents.get(reference);
+		if (keys != null) {
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				dependents.remove(reference);
+			}
+		}
+	}
+
+	/**
+	 * @param key the property key
+	 * @return a referenced key with a value that contains references and has not been resolved, or null if none
+	 */
+	private String findUnresolvedReference(final String key) {
+		for (String reference : getTemplate(key).getReferences()) {
+			if (!resolved.containsKey(reference) && getTemplate(reference) != null) {
+				return reference;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param key the property key, with the values it refers to resolved
+	 * @return the resolved value
+	 */
+	private String render(final String key) {
+		Template template = getTemplate(key);
+		for (String reference : template.getReferences()) {
+			if (cyclicKeys.contains(reference)) {
+				// Depends on a cycle
+				return fallback(key);
+			}
+		}
+		String value = template.render(this::lookup);
+		// Null if the escape depends on a resolved value, so fall back to substituting the whole value
+		return value == null ? fallback(key) : value;
+	}
+
+	/**
+	 * Substitute a value with {@link StringSubstitutor}, for the cases the dependency order does not handle.
+	 *
+	 * @param key the property key
+	 * @return the resolved value, or the value as it is if it refers to itself
+	 */
+	private String fallback(final String key) {
+		String value = values.get(key);
+		try {
+			return StringSubstitutor.replace(value, values);
+		} catch (IllegalStateException e) {
+			cyclicKeys.add(key);
+			return value;
+		}
+	}
+
+	/**
+	 * @param key the property key
+	 * @return the resolved value, or null if the property does not exist
+	 */
+	private String lookup(final String key) {
+		String value = resolved.get(key);
+		return value == null ? values.get(key) : value;
+	}
+
+	/**
+	 * A parsed property value.
+	 */
+	private static final class Template {
+
+		/**
+		 * The literal text and references of the value, in order.
+		 */
+		private final List<Part> parts;
+
+		/**
+		 * @param parts the literal text and references of the value
+		 */
+		private Template(final List<Part> parts) {
+			this.parts = parts;
+		}
+
+		/**
+		 * Parse a value in the same way as {@link StringSubstitutor}.
+		 *
+		 * @param value the value to parse
+		 * @return the parsed value
+		 */
+		static Template parse(final String value) {
+			List<Part> parts = new ArrayList<>();
+			StringBuilder literal = new StringBuilder();
+			int pos = 0;
+			int end = value.length();
+			while (pos < end) {
+				if (!value.startsWith(PREFIX, pos)) {
+					literal.append(value.charAt(pos++));
+					continue;
+				}
+				int suffix = value.indexOf(SUFFIX, pos + PREFIX.length());
+				if (suffix < 0) {
+					// Not terminated, so the rest of the value is literal
+					literal.append(value, pos, end);
+					break;
+				}
+				if (pos > 0 && value.charAt(pos - 1) == ESCAPE) {
+					// Escaped. The escape already in the literal text stands for the start of the reference, and
+					// parsing carries on after it.
+					pos++;
+					continue;
+				}
+				boolean afterReference = literal.length() == 0 && !parts.isEmpty();
+				if (literal.length() > 0) {
+					parts.add(new Part(literal.toString()));
+					literal.setLength(0);
+				}
+				parts.add(Part.reference(value.substring(pos, suffix + 1), value.substring(pos + PREFIX.length(), suffix),
+						afterReference));
+				pos = suffix + 1;
+			}
+			if (literal.length() > 0) {
+				parts.add(new Part(literal.toString()));
+			}
+			return new Template(parts);
+		}
+
+		/**
+		 * @return the keys referred to by the value
+		 */
+		Set<String> getReferences() {
+			Set<String> references = new LinkedHashSet<>();
+			for (Part part : parts) {
+				if (part.key != null) {
+					references.add(part.key);
+				}
+			}
+			return references;
+		}
+
+		/**
+		 * @param lookup looks up a resolved property value
+		 * @return the resolved value, or null if an escape depends on a resolved value
+		 */
+		String render(final Function<String, String> lookup) {
+			StringBuilder result = new StringBuilder();
+			for (Part part : parts) {
+				if (part.key == null) {
+					result.append(part.text);
+					continue;
+				}
+				if (part.afterReference && result.length() > 0 && result.charAt(result.length() - 1) == ESCAPE) {
+					return null;
+				}
+				String value = lookup.apply(part.key);
+				if (value == null) {
+					value = part.defaultValue;
+				}
+				result.append(value == null ? part.text : value);
+			}
+			return result.toString();
+		}
+	}
+
+	/**
+	 * Literal text or a reference in a property value.
+	 */
+	private static final class Part {
+
+		/**
+		 * The literal text, or the text of the reference.
+		 */
+		private final String text;
+
+		/**
+		 * The referenced key, or null if literal text.
+		 */
+		private final String key;
+
+		/**
+		 * The resolved default value of the reference, or null if none.
+		 */
+		private final String defaultValue;
+
+		/**
+		 * True if the reference directly follows another reference.
+		 */
+		private final boolean afterReference;
+
+		/**
+		 * @param text the literal text
+		 */
+		Part(final String text) {
+			this(text, null, null, false);
+		}
+
+		/**
+		 * @param text the literal text, or the text of the reference
+		 * @param key the referenced key, or null if literal text
+		 * @param defaultValue the resolved default value of the reference, or null if none
+		 * @param afterReference true if the reference directly follows another reference
+		 */
+		private Part(final String text, final String key, final String defaultValue, final boolean afterReference) {
+			this.text = text;
+			this.key = key;
+			this.defaultValue = defaultValue;
+			this.afterReference = afterReference;
+		}
+
+		/**
+		 * @param text the text of the reference
+		 * @param expression the reference between the start and end
+		 * @param afterReference true if the reference directly follows another reference
+		 * @return the reference
+		 */
+		static Part reference(final String text, final String expression, final boolean afterReference) {
+			String key = expression;
+			String defaultValue = null;
+			for (int i = 0; i < expression.length(); i++) {
+				// A nested reference stops the search for a default value
+				if (expression.startsWith(PREFIX, i)) {
+					break;
+				}
+				if (expression.startsWith(DEFAULT_DELIMITER, i)) {
+					key = expression.substring(0, i);
+					// The default value cannot contain a reference, but can contain escapes
+					defaultValue = Template.parse(expression.substring(i + DEFAULT_DELIMITER.length())).render(k -> null);
+					break;
+				}
+			}
+			return new Part(text, key, defaultValue, afterReference);
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+package com.github.bordertech.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Finds and reads the resources for a {@link DefaultConfiguration} in parallel, before they are loaded.
+ * <p>
+ * Each resource name is looked up on the class loader, and each resource found, along with the resource files in the
+ * user home and user directories, is read and parsed on a background thread. Resources included by a read resource
+ * are also read, unless the include refers to other properties. The configuration still loads the resources one at a
+ * time in the defined order, using the read resources when they are available, so the result is the same as loading
+ * them without the prefetcher.
+ * </p>
+ * <p>
+ * Any resource that could not be read is not returned, so the configuration reads it again and reports the error.
+ * </p>
+ *
+ * @since 1.0.9
+ */
+final class ResourcePrefetcher {
+
+	/**
+	 * Reads the resources.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The class loader used to find resources.
+	 */
+	private final ClassLoader classLoader;
+
+	/**
+	 * The resources read by the previous load, by location.
+	 */
+	private final Map<String, LoadedResource> previousResources;
+
+	/**
+	 * The resources found on the class loader, by resource name.
+	 */
+	private final Map<String, Future<List<URL>>> urls = new ConcurrentHashMap<>();
+
+	/**
+	 * The resources read, by location.
+	 */
+	private final Map<String, Future<LoadedResource>> resources = new ConcurrentHashMap<>();
+
+	/**
+	 * @param classLoader the class loader used to find resources
+	 * @param previousResources the resources read by the previous load, by location
+	 */
+	ResourcePrefetcher(final ClassLoader classLoader, final Map<String, LoadedResource> previousResources) {
+		this.classLoader = classLoader;
+		this.previousResources = previousResources;
+		AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+			Thread thread = new Thread(runnable, "bordertech-config-load-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Start finding and reading a resource.
+	 *
+	 * @param resourceName the resource name
+	 */
+	void prefetch(final String resourceName) {
+		try {
+			urls.computeIfAbsent(resourceName, name -> CompletableFuture.supplyAsync(() -> find(name), executor));
+		} catch (RejectedExecutionException e) {
+			// Loading has finished
+		}
+	}
+
+	/**
+	 * @param resourceName the resource name
+	 * @return the resources found on the class loader, or null if the resource name was not prefetched
+	 */
+	List<URL> getUrls(final String resourceName) {
+		return get(urls.get(resourceName));
+	}
+
+	/**
+	 * @param location the resource location
+	 * @return the resource read, or null if the resource was not prefetched or could not be read
+	 */
+	LoadedResource getResource(final String location) {
+		return get(resources.get(location));
+	}
+
+	/**
+	 * Stop reading resources.
+	 */
+	void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Find a resource on the class loader and as a file, and start reading each resource found.
+	 *
+	 * @param resourceName the resource name
+	 * @return the resources found on the class loader
+	 */
+	private List<URL> find(final String resourceName) {
+		List<URL> found;
+		try {
+			found = Collections.list(classLoader.getResources(resourceName));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		for (URL url : found) {
+			read(url.toString(), FileUtils.toFile(url), url::openStream);
+		}
+		readFile(FileUtils.getFile(SystemUtils.getUserHome(), resourceName));
+		readFile(FileUtils.getFile(SystemUtils.getUserDir(), resourceName));
+		return found;
+	}
+
+	/**
+	 * @param file the resource file to read, if it exists
+	 */
+	private void readFile(final File file) {
+		if (file.exists()) {
+			try {
+				read("file:" + file.getCanonicalPath(), file, () -> new FileInputStream(file));
+			} catch (IOException e) {
+				// Leave the configuration to report the error
+			}
+		}
+	}
+
+	/**
+	 * Start reading a resource.
+	 *
+	 * @param location the resource location
+	 * @param file the resource file, or null if the resource is not a file
+	 * @param opener opens the resource content
+	 */
+	private void read(final String location, final File file, final LoadedResource.Opener opener) {
+		try {
+			resources.computeIfAbsent(location, key -> CompletableFuture.supplyAsync(() -> {
+				try {
+					LoadedResource resource = LoadedResource.read(file, opener, previousResources.get(key));
+					prefetchIncludes(resource);
+					return resource;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, executor));
+		} catch (RejectedExecutionException e) {
+			// Loading has finished
+		}
+	}
+
+	/**
+	 * Start finding and reading the resources included by a resource.
+	 *
+	 * @param resource the resource read
+	 */
+	private void prefetchIncludes(final LoadedResource resource) {
+		for (Pair<String, String> entry : resource.getEntries()) {
+			String key = entry.getKey();
+			String value = entry.getValue();
+			boolean include = DefaultConfiguration.INCLUDE.equals(key) || DefaultConfiguration.INCLUDE_AFTER.equals(key);
+			// Includes that refer to other properties are only known when they are loaded
+			if (include && value != null && !value.contains("${")) {
+				for (String name : StringUtils.split(value, ',')) {
+					if (StringUtils.isNotBlank(name)) {
+						prefetch(name.trim());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param future the prefetched result
+	 * @param <T> the result type
+	 * @return the result, or null if there is no result
+	 */
+	private static <T> T get(final Future<T> future) {
+		if (future == null) {
+			return null;
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			return null;
+		}
+	}
+
+}
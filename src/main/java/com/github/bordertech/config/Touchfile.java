@@ -1,12 +1,47 @@
 package com.github.bordertech.config;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.SimpleLog;
 
 /**
  * Monitor a touchfile to check if it has changed.
+ * <p>
+ * The touchfile can be checked by many threads at the same time. Only one thread per check interval will read the file
+ * details, so a change is only reported once.
+ * </p>
+ * <p>
+ * Alternatively the touchfile can be watched on a background daemon thread via {@link #watch(Runnable)}. A
+ * {@link WatchService} is used to pick up changes as soon as they happen, and the file is also checked at least once
+ * every check interval, whatever other events arrive, in case the file system drops or does not report changes. If a
+ * watch service is not available, the file is polled every check interval instead.
+ * </p>
  */
 public class Touchfile {
 
+	/**
+	 * Logger for watcher errors.
+	 */
+	private static final Log LOG = new SimpleLog("Touchfile");
+
+	/**
+	 * The interval used to poll the touchfile when it is watched and no check interval has been set.
+	 */
+	private static final long DEFAULT_WATCH_INTERVAL = 1000;
+
 	/**
 	 * Touchfile name.
 	 */
@@ -25,12 +60,22 @@ public class Touchfile {
 	/**
 	 * The last time the file was checked.
 	 */
-	private long lastChecked;
+	private final AtomicLong lastChecked;
 
 	/**
 	 * The files last modified time.
 	 */
-	private long lastModified;
+	private final AtomicLong lastModified;
+
+	/**
+	 * The background thread watching the touchfile (if being watched).
+	 */
+	private final AtomicReference<ScheduledExecutorService> watcher = new AtomicReference<>();
+
+	/**
+	 * The watch service used by the background thread (if available).
+	 */
+	private final AtomicReference<WatchService> watchService = new AtomicReference<>();
 
 	/**
 	 * @param filename the touch file name
@@ -43,8 +88,8 @@ public class Touchfile {
 		this.filename = filename;
 		this.file = new File(filename);
 		this.checkInterval = checkInterval < 0 ? 0 : checkInterval;
-		this.lastChecked = System.currentTimeMillis();
-		this.lastModified = file.lastModified();
+		this.lastChecked = new AtomicLong(System.currentTimeMillis());
+		this.lastModified = new AtomicLong(file.lastModified());
 	}
 
 	/**
@@ -55,21 +100,154 @@ public class Touchfile {
 
 		// Has the check interval passed?
 		long now = System.currentTimeMillis();
-		if (now - lastChecked < checkInterval) {
+		long checked = lastChecked.get();
+		if (now - checked < checkInterval) {
 			return false;
 		}
-		lastChecked = now;
 
-		// Has the file changed?
-		long modified = file.lastModified();
-		if (lastModified == modified) {
-			// No Change
+		// Only one thread gets to check the file for this interval
+		if (!lastChecked.compareAndSet(checked, now)) {
 			return false;
 		}
 
-		// Has changed so save new file details
-		lastModified = modified;
-		return true;
+		// Has the file changed? Only one thread saves the new file details, so the change is only reported once, even
+		// if more than one thread checks the file in the same milli second.
+		long modified = file.lastModified();
+		long previous = lastModified.get();
+		return previous != modified && lastModified.compareAndSet(previous, modified);
+	}
+
+	/**
+	 * Watch the touchfile on a background daemon thread and run the action each time the file changes.
+	 * <p>
+	 * The action is run on the watcher thread. Use {@link #stop()} to stop watching the file.
+	 * </p>
+	 *
+	 * @param onChange the action to run when the touchfile changes
+	 */
+	public void watch(final Runnable onChange) {
+		if (onChange == null) {
+			throw new IllegalArgumentException("A change action must be provided.");
+		}
+
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "bordertech-config-touchfile");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if (!watcher.compareAndSet(null, executor)) {
+			executor.shutdown();
+			throw new IllegalStateException("Touchfile " + filename + " is already being watched.");
+		}
+
+		long interval = checkInterval > 0 ? checkInterval : DEFAULT_WATCH_INTERVAL;
+		WatchService service = createWatchService();
+		if (service == null) {
+			// Fallback to polling the file
+			executor.scheduleWithFixedDelay(() -> checkWatched(onChange), interval, interval, TimeUnit.MILLISECONDS);
+		} else {
+			watchService.set(service);
+			executor.execute(() -> watchEvents(service, interval, onChange));
+		}
+	}
+
+	/**
+	 * Stop watching the touchfile.
+	 */
+	public void stop() {
+		ScheduledExecutorService executor = watcher.getAndSet(null);
+		if (executor != null) {
+			executor.shutdown();
+		}
+		// Closing the watch service wakes up the watcher thread
+		IOUtils.closeQuietly(watchService.getAndSet(null));
+	}
+
+	/**
+	 * @return true if the touchfile is being watched on a background thread
+	 */
+	public boolean isWatching() {
+		return watcher.get() != null;
+	}
+
+	/**
+	 * @return a watch service registered on the touchfile directory, or null if not available
+	 */
+	private WatchService createWatchService() {
+		Path dir = file.getAbsoluteFile().toPath().getParent();
+		if (dir == null || !dir.toFile().isDirectory()) {
+			return null;
+		}
+		WatchService service = null;
+		try {
+			service = dir.getFileSystem().newWatchService();
+			dir.register(service,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+			return service;
+		} catch (IOException | UnsupportedOperationException e) {
+			IOUtils.closeQuietly(service);
+			return null;
+		}
+	}
+
+	/**
+	 * Wait for events on the touchfile directory. The file is checked when an event for the file arrives, when events
+	 * have been lost (an overflow) and at least once every interval, even if events for other files keep arriving.
+	 *
+	 * @param service the watch service
+	 * @param interval the interval to wait for events in milli seconds
+	 * @param onChange the action to run when the touchfile changes
+	 */
+	private void watchEvents(final WatchService service, final long interval, final Runnable onChange) {
+		String name = file.getName();
+		long intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+		long nextCheck = System.nanoTime() + intervalNanos;
+		try {
+			while (isWatching()) {
+				long wait = nextCheck - System.nanoTime();
+				WatchKey key = wait > 0 ? service.poll(wait, TimeUnit.NANOSECONDS) : service.poll();
+				boolean check = false;
+				if (key != null) {
+					for (WatchEvent<?> event : key.pollEvents()) {
+						check = check || event.kind() == StandardWatchEventKinds.OVERFLOW
+								|| name.equals(String.valueOf(event.context()));
+					}
+					key.reset();
+				}
+				if (check || System.nanoTime() - nextCheck >= 0) {
+					checkWatched(onChange);
+					nextCheck = System.nanoTime() + intervalNanos;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			// Watching has been stopped
+		} finally {
+			IOUtils.closeQuietly(service);
+		}
+	}
+
+	/**
+	 * Check if the watched file has changed and run the action.
+	 *
+	 * @param onChange the action to run when the touchfile changes
+	 */
+	private void checkWatched(final Runnable onChange) {
+		lastChecked.set(System.currentTimeMillis());
+		long modified = file.lastModified();
+		long previous = lastModified.get();
+		if (previous == modified || !lastModified.compareAndSet(previous, modified)) {
+			return;
+		}
+		try {
+			onChange.run();
+		} catch (RuntimeException e) {
+			// Keep watching the file
+			LOG.error("Error handling change to touchfile " + filename + ". " + e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -90,14 +268,14 @@ public class Touchfile {
 	 * @return the last checked time
 	 */
 	public final long getLastChecked() {
-		return lastChecked;
+		return lastChecked.get();
 	}
 
 	/**
 	 * @return the file last modified
 	 */
 	public final long getLastModified() {
-		return lastModified;
+		return lastModified.get();
 	}
 
 }
@@ -47,8 +47,44 @@ public class AccessInitHelper {
 		}
 	}
 
+	public static void overrideLoadParallel(boolean value, boolean resetConfig) throws Exception {
+		getField("LOAD_PARALLEL").set(null, value);
+
+		if (resetConfig) {
+			Config.reset();
+		}
+	}
+
+	public static void overrideLeanMode(boolean value, boolean resetConfig) throws Exception {
+		getField("LEAN_MODE").set(null, value);
+
+		if (resetConfig) {
+			Config.reset();
+		}
+	}
+
+	public static void overrideLazySubstitution(boolean value, boolean resetConfig) throws Exception {
+		getField("LAZY_SUBSTITUTION").set(null, value);
+
+		if (resetConfig) {
+			Config.reset();
+		}
+	}
+
+	public static void overrideReloadBackground(boolean value, boolean resetConfig) throws Exception {
+		getField("RELOAD_BACKGROUND").set(null, value);
+
+		if (resetConfig) {
+			Config.reset();
+		}
+	}
+
 	public static void reset() throws Exception {
 		overrideSpiEnabled(true, false);
+		overrideLoadParallel(false, false);
+		overrideLeanMode(false, false);
+		overrideLazySubstitution(false, false);
+		overrideReloadBackground(false, false);
 		overrideSpiAppend(true, false);
 		overrideDefaultConfig(DefaultConfiguration.class.getName(), false);
 
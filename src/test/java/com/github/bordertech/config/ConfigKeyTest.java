@@ -0,0 +1,98 @@
+package com.github.bordertech.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ConfigKey}.
+ */
+public class ConfigKeyTest {
+
+	@After
+	public void tearDown() {
+		Config.reset();
+	}
+
+	@Test
+	public void testIntHandle() {
+		DefaultConfiguration config = new DefaultConfiguration();
+		config.setProperty("configKeyTest.int", "5");
+		Config.setConfiguration(config);
+
+		ConfigKey<Integer> handle = Config.intHandle("configKeyTest.int", 10);
+		Assert.assertEquals("Incorrect handle key", "configKeyTest.int", handle.getKey());
+		Assert.assertEquals("Incorrect handle value", Integer.valueOf(5), handle.get());
+
+		// Value is not read again until the listeners are notified
+		config.setProperty("configKeyTest.int", "6");
+		Assert.assertEquals("Handle should keep value until notified", Integer.valueOf(5), handle.get());
+		Config.notifyListeners();
+		Assert.assertEquals("Handle should be refreshed", Integer.valueOf(6), handle.get());
+	}
+
+	@Test
+	public void testHandleDefaults() {
+		Config.setConfiguration(new DefaultConfiguration());
+		Assert.assertEquals("Incorrect string default", "x", Config.stringHandle("configKeyTest.missing", "x").get());
+		Assert.assertEquals("Incorrect int default", Integer.valueOf(10), Config.intHandle("configKeyTest.missing", 10).get());
+		Assert.assertEquals("Incorrect long default", Long.valueOf(20), Config.longHandle("configKeyTest.missing", 20).get());
+		Assert.assertTrue("Incorrect boolean default", Config.booleanHandle("configKeyTest.missing", true).get());
+		Assert.assertEquals("Incorrect converted default", Duration.ofSeconds(5),
+				Config.handle("configKeyTest.missing", Duration.ofSeconds(5), Duration::parse).get());
+	}
+
+	@Test
+	public void testHandleConverted() {
+		DefaultConfiguration config = new DefaultConfiguration();
+		config.setProperty("configKeyTest.duration", "PT30S");
+		Config.setConfiguration(config);
+
+		ConfigKey<Duration> handle = Config.handle("configKeyTest.duration", Duration.ofSeconds(5), Duration::parse);
+		Assert.assertEquals("Incorrect converted value", Duration.ofSeconds(30), handle.get());
+
+		// Conversion error keeps the current value
+		config.setProperty("configKeyTest.duration", "invalid");
+		Config.notifyListeners();
+		Assert.assertEquals("Handle should keep value on error", Duration.ofSeconds(30), handle.get());
+	}
+
+	@Test
+	public void testHandleOnlyRefreshedForKey() {
+		DefaultConfiguration config = new DefaultConfiguration();
+		config.setProperty("configKeyTest.exact", "1");
+		Config.setConfiguration(config);
+
+		AtomicInteger reads = new AtomicInteger();
+		ConfigKey<String> handle = Config.handle("configKeyTest.exact", "default", value -> {
+			reads.incrementAndGet();
+			return value;
+		});
+		Assert.assertEquals("Incorrect handle value", "1", handle.get());
+
+		// Keys that start with the handle key do not refresh the handle
+		config.setProperty("configKeyTest.exactly", "2");
+		config.setProperty("configKeyTest.exact.child", "3");
+		Config.notifyListeners();
+		Assert.assertEquals("Handle should not be refreshed for other keys", 1, reads.get());
+
+		config.setProperty("configKeyTest.exact", "4");
+		Config.notifyListeners();
+		Assert.assertEquals("Handle should be refreshed for its key", "4", handle.get());
+		Assert.assertEquals("Handle should be refreshed once", 2, reads.get());
+	}
+
+	@Test
+	public void testHandleConfigurationReplaced() {
+		ConfigKey<String> handle = Config.stringHandle("configKeyTest.replaced", "default");
+		Assert.assertEquals("Incorrect handle value", "default", handle.get());
+
+		DefaultConfiguration config = new DefaultConfiguration();
+		config.setProperty("configKeyTest.replaced", "replaced");
+		Config.setConfiguration(config);
+		Assert.assertEquals("Handle should be refreshed on new configuration", "replaced", handle.get());
+	}
+
+}
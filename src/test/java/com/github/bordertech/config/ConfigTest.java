@@ -8,9 +8,20 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Ensure the Config class does what it says.
@@ -113,6 +124,100 @@ public class ConfigTest {
 		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> Config.getInstance().getString(key).equals("IN-DEFAULTS"));
 	}
 
+	@Test
+	public void testTouchFileReloadBackground() throws Exception {
+		AccessInitHelper.overrideReloadBackground(true, false);
+
+		final String key = "test.in.defaults";
+		final String value = "override";
+
+		DefaultConfiguration config = new DefaultConfiguration();
+		config.setProperty("bordertech.config.touchfile", "./target/parameters.touch");
+		config.setProperty("bordertech.config.touchfile.interval", "2000");
+		config.setProperty(key, "override");
+		Config.setConfiguration(config);
+
+		Assert.assertEquals(value, Config.getInstance().getString(key));
+
+		// The reload runs on a background thread, not the thread calling getInstance()
+		Thread caller = Thread.currentThread();
+		AtomicReference<Thread> reloadThread = new AtomicReference<>();
+		PropertyChangeListener listener = evt -> reloadThread.set(Thread.currentThread());
+		Config.addPropertyChangeListener(listener);
+		try {
+			FileUtils.touch(new File("./target/parameters.touch"));
+
+			Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> Config.getInstance().getString(key).equals("IN-DEFAULTS"));
+			Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> reloadThread.get() != null);
+			Assert.assertNotSame("Reload should not run on the calling thread", caller, reloadThread.get());
+		} finally {
+			Config.removePropertyChangeListener(listener);
+		}
+	}
+
+	@Test
+	public void testTouchFileChangedDuringReload() throws Exception {
+		File touchfile = new File(TouchfileConfiguration.TOUCHFILE);
+		FileUtils.touch(touchfile);
+		long modified = System.currentTimeMillis() - 60000;
+		Assert.assertTrue("Could not set touchfile time", touchfile.setLastModified(modified));
+		AccessInitHelper.overrideReloadBackground(true, false);
+		AccessInitHelper.overrideDefaultConfig(TouchfileConfiguration.class.getName(), true);
+		final int loads = TouchfileConfiguration.LOADS.get();
+
+		// Hold the reload while it notifies the listeners
+		CountDownLatch reloading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		PropertyChangeListener listener = evt -> {
+			reloading.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		Config.addPropertyChangeListener(listener);
+		try {
+			Assert.assertTrue("Could not set touchfile time", touchfile.setLastModified(modified + 1000));
+			Config.getInstance();
+			Assert.assertTrue("Reload should have started", reloading.await(5, TimeUnit.SECONDS));
+
+			// Changed again while the reload is running
+			Assert.assertTrue("Could not set touchfile time", touchfile.setLastModified(modified + 2000));
+			Config.getInstance();
+			release.countDown();
+
+			Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> TouchfileConfiguration.LOADS.get() == loads + 2);
+		} finally {
+			release.countDown();
+			Config.removePropertyChangeListener(listener);
+		}
+	}
+
+	@Test
+	public void testTouchFileWatch() throws Exception {
+
+		final String key = "test.in.defaults";
+		final String value = "override";
+
+		File touchfile = new File("./target/parameters-watch.touch");
+		FileUtils.touch(touchfile);
+
+		DefaultConfiguration config = new DefaultConfiguration();
+		config.setProperty("bordertech.config.touchfile", touchfile.getPath());
+		config.setProperty("bordertech.config.touchfile.interval", "2000");
+		config.setProperty("bordertech.config.touchfile.watch", "true");
+		config.setProperty(key, value);
+		Config.setConfiguration(config);
+
+		Assert.assertEquals(value, Config.getInstance().getString(key));
+
+		// Make sure the file modified time changes
+		Assert.assertTrue(touchfile.setLastModified(touchfile.lastModified() + 5000));
+
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> Config.getInstance().getString(key).equals("IN-DEFAULTS"));
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void testConfigurationMissingDefaultClass() throws Exception {
 		DefaultConfiguration config = new DefaultConfiguration();
@@ -146,6 +251,153 @@ public class ConfigTest {
 		Assert.assertEquals(listenMsg, listen[0]);
 	}
 
+	@Test
+	public void testNotifyListenersEvent() {
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		Config.addPropertyChangeListener(events::add);
+		Config.notifyListeners();
+		Assert.assertEquals("Expected one event", 1, events.size());
+		Assert.assertNull("Event should have no property name", events.get(0).getPropertyName());
+	}
+
+	@Test
+	public void testNotifyListenersAsync() throws Exception {
+		DefaultConfiguration config = new DefaultConfiguration();
+		config.setProperty("bordertech.config.listeners.async", "true");
+		Config.setConfiguration(config);
+
+		final CountDownLatch notified = new CountDownLatch(1);
+		final Thread caller = Thread.currentThread();
+		final Thread[] listenerThread = new Thread[1];
+		Config.addPropertyChangeListener("configTest.async.", evt -> {
+			listenerThread[0] = Thread.currentThread();
+			notified.countDown();
+		});
+
+		config.setProperty("configTest.async.key", "value");
+		Config.notifyListeners();
+
+		Assert.assertTrue("Listener should be notified", notified.await(5, TimeUnit.SECONDS));
+		Assert.assertNotSame("Listener should be notified on another thread", caller, listenerThread[0]);
+	}
+
+	@Test
+	public void testRemovePropertyChangeListener() {
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		PropertyChangeListener listener = events::add;
+		Config.addPropertyChangeListener(listener);
+		// Adding the same listener again is ignored
+		Config.addPropertyChangeListener(listener);
+		Config.notifyListeners();
+		Assert.assertEquals("Listener should be notified once", 1, events.size());
+
+		Config.removePropertyChangeListener(listener);
+		Config.notifyListeners();
+		Assert.assertEquals("Removed listener should not be notified", 1, events.size());
+	}
+
+	@Test
+	public void testWeakPropertyChangeListener() {
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		PropertyChangeListener listener = new PropertyChangeListener() {
+			@Override
+			public void propertyChange(final PropertyChangeEvent evt) {
+				events.add(evt);
+			}
+		};
+		Config.addWeakPropertyChangeListener(listener);
+		Config.notifyListeners();
+		Assert.assertEquals("Weak listener should be notified", 1, events.size());
+
+		// The registration does not keep the listener
+		final WeakReference<PropertyChangeListener> ref = new WeakReference<>(listener);
+		listener = null;
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> {
+			System.gc();
+			return ref.get() == null;
+		});
+		Config.notifyListeners();
+		Assert.assertEquals("Collected listener should not be notified", 1, events.size());
+	}
+
+	@Test
+	public void testAddListenerWhileNotifying() {
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		Config.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(final PropertyChangeEvent evt) {
+				Config.addPropertyChangeListener(events::add);
+				Config.removePropertyChangeListener(this);
+			}
+		});
+		Config.notifyListeners();
+		Config.notifyListeners();
+		Assert.assertEquals("Listener added while notifying should be notified next time", 1, events.size());
+	}
+
+	@Test
+	public void testNotifyListenersPrefix() {
+		DefaultConfiguration config = new DefaultConfiguration();
+		config.setProperty("configTest.prefix.changed", "old");
+		config.setProperty("configTest.prefix.removed", "removed");
+		config.setProperty("configTest.prefix.same", "same");
+		config.setProperty("configTest.other", "old");
+		Config.setConfiguration(config);
+
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		Config.addPropertyChangeListener("configTest.prefix.", events::add);
+
+		config.setProperty("configTest.prefix.changed", "new");
+		config.clearProperty("configTest.prefix.removed");
+		config.setProperty("configTest.prefix.added", "added");
+		config.setProperty("configTest.other", "new");
+		Config.notifyListeners();
+
+		Map<String, PropertyChangeEvent> byKey = new HashMap<>();
+		for (PropertyChangeEvent event : events) {
+			byKey.put(event.getPropertyName(), event);
+		}
+		Assert.assertEquals("Incorrect changed keys",
+				new HashSet<>(Arrays.asList("configTest.prefix.changed", "configTest.prefix.removed", "configTest.prefix.added")),
+				byKey.keySet());
+		Assert.assertEquals("old", byKey.get("configTest.prefix.changed").getOldValue());
+		Assert.assertEquals("new", byKey.get("configTest.prefix.changed").getNewValue());
+		Assert.assertEquals("removed", byKey.get("configTest.prefix.removed").getOldValue());
+		Assert.assertNull(byKey.get("configTest.prefix.removed").getNewValue());
+		Assert.assertNull(byKey.get("configTest.prefix.added").getOldValue());
+		Assert.assertEquals("added", byKey.get("configTest.prefix.added").getNewValue());
+
+		// No changes
+		events.clear();
+		Config.notifyListeners();
+		Assert.assertTrue("No events expected", events.isEmpty());
+	}
+
+	@Test
+	public void testNotifyListenersPrefixLazySubstitution() throws Exception {
+		AccessInitHelper.overrideLazySubstitution(true, false);
+		DefaultConfiguration config = new DefaultConfiguration("com/github/bordertech/config/DefaultConfigurationTestSubstitution.properties");
+		Config.setConfiguration(config);
+
+		final List<PropertyChangeEvent> events = new ArrayList<>();
+		Config.addPropertyChangeListener("substitute.test.", events::add);
+
+		// The values that refer to the changed value are also changed
+		config.setProperty("substitute.test.Z", "changedZ");
+		Config.notifyListeners();
+
+		Map<String, PropertyChangeEvent> byKey = new HashMap<>();
+		for (PropertyChangeEvent event : events) {
+			byKey.put(event.getPropertyName(), event);
+		}
+		Assert.assertEquals("Incorrect changed keys",
+				new HashSet<>(Arrays.asList("substitute.test.X", "substitute.test.Y", "substitute.test.Z")), byKey.keySet());
+		Assert.assertEquals("valueZ", byKey.get("substitute.test.X").getOldValue());
+		Assert.assertEquals("changedZ", byKey.get("substitute.test.X").getNewValue());
+		Assert.assertFalse("Unread value should not be substituted by the notification",
+				config.getSnapshot().isSubstituted("substitute.test.X2"));
+	}
+
 	@Test
 	public void testGetInstanceSpiConfig() throws Exception {
 		AccessInitHelper.overrideSpiEnabled(false, true);
@@ -156,4 +408,20 @@ public class ConfigTest {
 	public void tearDown() throws Exception {
 		AccessInitHelper.reset();
 	}
+
+	/**
+	 * A default configuration with a touchfile, which counts the times it has been loaded.
+	 */
+	public static class TouchfileConfiguration extends DefaultConfiguration {
+
+		private static final String TOUCHFILE = "./target/parameters-pending.touch";
+
+		private static final AtomicInteger LOADS = new AtomicInteger();
+
+		public TouchfileConfiguration() {
+			setProperty("bordertech.config.touchfile", TOUCHFILE);
+			setProperty("bordertech.config.touchfile.interval", "0");
+			LOADS.incrementAndGet();
+		}
+	}
 }
@@ -0,0 +1,177 @@
+package com.github.bordertech.config;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JUnit tests for {@link ConfigurationSnapshot}.
+ */
+public class ConfigurationSnapshotTest {
+
+	@Test
+	public void testEmpty() {
+		ConfigurationSnapshot snapshot = ConfigurationSnapshot.EMPTY;
+		Assert.assertTrue("Empty snapshot should have no properties", snapshot.getBacking().isEmpty());
+		Assert.assertNull("Empty snapshot should have no profile", snapshot.getProfile());
+		Assert.assertNull("Empty snapshot should not have a value", snapshot.get("key"));
+		Assert.assertFalse("Empty snapshot should not contain a key", snapshot.containsKey("key"));
+		Assert.assertFalse("Empty snapshot should not have a flag", snapshot.getBoolean("key"));
+	}
+
+	@Test
+	public void testGet() {
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(createBacking(), null);
+		Assert.assertEquals("Incorrect value", "value", snapshot.get("key"));
+		Assert.assertTrue("Key should exist", snapshot.containsKey("key"));
+		Assert.assertTrue("Incorrect boolean value", snapshot.getBoolean("flag"));
+		Assert.assertFalse("Incorrect boolean value", snapshot.getBoolean("key"));
+		Assert.assertEquals("Profile key should not be used", "key", snapshot.getProfileKey("key"));
+	}
+
+	@Test
+	public void testLazySubstitution() {
+		Map<String, String> backing = new HashMap<>();
+		backing.put("value", "true");
+		backing.put("lazy.flag", "${value}");
+		backing.put("lazy.text", "prefix-${lazy.flag}");
+		backing.put("lazy.profile", "base");
+		backing.put("lazy.profile.p1", "${lazy.text}-p1");
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(backing, "p1", true);
+
+		Assert.assertEquals("Incorrect substituted value", "prefix-true", snapshot.get("lazy.text"));
+		Assert.assertTrue("Incorrect substituted boolean value", snapshot.getBoolean("lazy.flag"));
+		Assert.assertEquals("Incorrect substituted profile value", "prefix-true-p1", snapshot.get("lazy.profile"));
+		Assert.assertEquals("Incorrect substituted prefix value", "true", snapshot.getPrefixed("lazy.").get("lazy.flag"));
+		Assert.assertEquals("Incorrect substituted backing value", "prefix-true-p1", snapshot.getBacking().get("lazy.profile.p1"));
+		Assert.assertEquals("Incorrect substituted resolved value", "prefix-true-p1", snapshot.getResolved().get("lazy.profile"));
+	}
+
+	@Test
+	public void testLazySubstitutionChangedKeys() {
+		Map<String, String> backing = new HashMap<>();
+		backing.put("base", "old");
+		backing.put("ref", "${base}-ref");
+		backing.put("other", "${unchanged}");
+		backing.put("unchanged", "value");
+		ConfigurationSnapshot previous = new ConfigurationSnapshot(new HashMap<>(backing), null, true);
+		backing.put("base", "new");
+		backing.put("added", "added");
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(backing, null, true);
+
+		Assert.assertEquals("Incorrect changed keys", new HashSet<>(Arrays.asList("base", "ref", "added")),
+				snapshot.findChangedKeys(previous));
+		Assert.assertFalse("Changed keys should be found without substitution", snapshot.isSubstituted("ref"));
+
+		Assert.assertEquals("Incorrect substituted prefix value", "new-ref", snapshot.getPrefixed("ref").get("ref"));
+		Assert.assertTrue("Value with the prefix should be substituted", snapshot.isSubstituted("ref"));
+		Assert.assertFalse("Value without the prefix should not be substituted", snapshot.isSubstituted("other"));
+	}
+
+	@Test
+	public void testGetWithProfile() {
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(createBacking(), "dev");
+		Assert.assertEquals("Incorrect profile", "dev", snapshot.getProfile());
+		Assert.assertEquals("Profile value should be used", "devValue", snapshot.get("key"));
+		Assert.assertEquals("Value without profile should be used", "other", snapshot.get("other"));
+		Assert.assertTrue("Profile flag should be used", snapshot.getBoolean("devFlag"));
+		Assert.assertEquals("Incorrect profile key", "key.dev", snapshot.getProfileKey("key"));
+		Assert.assertFalse("Profile key should not be used for profile property",
+				snapshot.useProfileKey(DefaultConfiguration.PROFILE_PROPERTY));
+	}
+
+	@Test
+	public void testResolvedWithProfile() {
+		Map<String, String> backing = createBacking();
+		backing.put("trueFlag", "true");
+		backing.put("trueFlag.dev", "false");
+		backing.put(DefaultConfiguration.PROFILE_PROPERTY + ".dev", "other");
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(backing, "dev");
+		Assert.assertEquals("Profile value should be overlaid", "devValue", snapshot.getResolved().get("key"));
+		Assert.assertEquals("Profile key should still exist", "devValue", snapshot.get("key.dev"));
+		Assert.assertTrue("Base key should exist for profile key", snapshot.containsKey("devFlag"));
+		Assert.assertTrue("False profile flag does not override true flag", snapshot.getBoolean("trueFlag"));
+		Assert.assertEquals("Profile value should be overlaid", "false", snapshot.get("trueFlag"));
+		Assert.assertNull("Profile property should not use profile key", snapshot.get(DefaultConfiguration.PROFILE_PROPERTY));
+		Assert.assertEquals("Raw backing should not be overlaid", "value", snapshot.getBacking().get("key"));
+	}
+
+	@Test
+	public void testResolvedWithoutProfile() {
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(createBacking(), null);
+		Assert.assertSame("Resolved view should be the backing without a profile", snapshot.getBacking(), snapshot.getResolved());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testBackingUnmodifiable() {
+		new ConfigurationSnapshot(createBacking(), null).getBacking().put("new", "value");
+	}
+
+	@Test
+	public void testGetSubPropertiesCached() {
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(createBacking(), null);
+		Properties sub = snapshot.getSubProperties("key", true);
+		Assert.assertEquals("Incorrect sub properties", "value", sub.getProperty(""));
+		Assert.assertEquals("Incorrect sub properties", "devValue", sub.getProperty(".dev"));
+		Assert.assertSame("Sub properties should be cached", sub, snapshot.getSubProperties("key", true));
+		Assert.assertNotSame("Truncated sub properties cached separately", sub, snapshot.getSubProperties("key", false));
+	}
+
+	@Test
+	public void testGetPrefixed() {
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(createBacking(), null);
+		Assert.assertEquals("Incorrect prefixed keys", Arrays.asList("key", "key.dev"),
+				new ArrayList<>(snapshot.getPrefixed("key").keySet()));
+		Assert.assertEquals("Incorrect prefixed value", "devValue", snapshot.getPrefixed("key.").get("key.dev"));
+		Assert.assertTrue("Unknown prefix should be empty", snapshot.getPrefixed("unknown").isEmpty());
+		Assert.assertEquals("Empty prefix should include all keys", 5, snapshot.getPrefixed("").size());
+	}
+
+	@Test
+	public void testGetPrefixEnd() {
+		Assert.assertEquals("Incorrect prefix end", "abd", ConfigurationSnapshot.getPrefixEnd("abc"));
+		Assert.assertEquals("Incorrect prefix end", "ac", ConfigurationSnapshot.getPrefixEnd("ab\uffff"));
+		Assert.assertNull("No prefix end expected", ConfigurationSnapshot.getPrefixEnd("\uffff\uffff"));
+	}
+
+	@Test
+	public void testConvertCached() {
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot(createBacking(), null);
+		AtomicInteger conversions = new AtomicInteger();
+		Function<String, BigDecimal> converter = value -> {
+			conversions.incrementAndGet();
+			return new BigDecimal(value);
+		};
+		BigDecimal first = snapshot.convert("number", "1.5", BigDecimal.class, converter);
+		BigDecimal second = snapshot.convert("number", "1.5", BigDecimal.class, converter);
+		Assert.assertEquals("Incorrect converted value", new BigDecimal("1.5"), first);
+		Assert.assertSame("Converted value should be cached", first, second);
+		Assert.assertEquals("Value should only be converted once", 1, conversions.get());
+		// Different value for the same key
+		Assert.assertEquals("Different value should be converted", new BigDecimal("2.5"),
+				snapshot.convert("number", "2.5", BigDecimal.class, converter));
+		Assert.assertEquals("Different value should be converted", 2, conversions.get());
+		// Same key different type
+		Assert.assertEquals("Different type should be converted", Integer.valueOf(3),
+				snapshot.convert("number", "3", Integer.class, Integer::valueOf));
+	}
+
+	private Map<String, String> createBacking() {
+		Map<String, String> backing = new HashMap<>();
+		backing.put("key", "value");
+		backing.put("key.dev", "devValue");
+		backing.put("other", "other");
+		backing.put("flag", "true");
+		backing.put("devFlag.dev", "true");
+		return backing;
+	}
+
+}
@@ -68,6 +68,36 @@ public class DefaultConfigurationDumpFileTest {
 		Assert.assertFalse("Existing file should have been overwritten", log.contains(EXISTING_LOG));
 	}
 
+	@Test
+	public void dumpParametersFileEnabledLeanMode() throws Exception {
+		AccessInitHelper.overrideLeanMode(true, false);
+		try {
+			DefaultConfiguration config = new DefaultConfiguration(
+					"com/github/bordertech/config/DefaultConfigurationTestDumpFileEnabled.properties");
+			Assert.assertEquals("Incorrect property value in lean mode", "A", config.get(LOG_PARAM));
+			// The history and messages should still be dumped
+			String log = getLogContent();
+			checkLogContent(log);
+			Assert.assertTrue("Log should contain property history",
+					log.contains(LOG_PARAM + " = A (") && log.contains("DefaultConfigurationTestDumpFileEnabled.properties)"));
+			Assert.assertTrue("Log should contain load messages", log.contains("Loading from url"));
+		} finally {
+			AccessInitHelper.overrideLeanMode(false, false);
+		}
+	}
+
+	@Test
+	public void dumpParametersFileSubstitution() {
+		DefaultConfiguration config = new DefaultConfiguration(
+				"com/github/bordertech/config/DefaultConfigurationTestDumpFileSubstitution.properties");
+		Assert.assertEquals("Incorrect substituted value", "AD", config.get("simple.param4"));
+		// The history should still show the value before substitution
+		String log = getLogContent();
+		checkLogContent(log);
+		Assert.assertTrue("Log should contain the substituted template",
+				log.contains("simple.param4 = AD (substitution of ${${simple.param1}D}"));
+	}
+
 	@Test
 	public void dumpParametersFileDisabled() {
 		DefaultConfiguration config = new DefaultConfiguration(
@@ -41,4 +41,100 @@ public class DefaultConfigurationSubstitutionBasicTest {
 		Assert.assertEquals("Property value with environment suffix not correct", "ENV_TEST", config.get("substitute.test.env"));
 	}
 
+	@Test
+	public void testSubstituteCycleNotSubstituted() {
+		DefaultConfiguration config = new DefaultConfiguration("com/github/bordertech/config/DefaultConfigurationTestSubstitutionCycle.properties");
+		Assert.assertEquals("Value in cycle should not be substituted", "${substitute.cycle.B}", config.get("substitute.cycle.A"));
+		Assert.assertEquals("Value referring to itself should not be substituted", "${substitute.cycle.self}",
+				config.get("substitute.cycle.self"));
+		Assert.assertEquals("Value not in cycle should be substituted", "value", config.get("substitute.cycle.other"));
+	}
+
+	@Test
+	public void testRuntimeChangeSubstitutesDependents() {
+		DefaultConfiguration config = new DefaultConfiguration("com/github/bordertech/config/DefaultConfigurationTestSubstitution.properties");
+		config.setProperty("substitute.test.Z", "changedZ");
+		Assert.assertEquals("Value for Y should match changed Z value", "changedZ", config.get("substitute.test.Y"));
+		Assert.assertEquals("Value for X should match changed Z value", "changedZ", config.get("substitute.test.X"));
+		Assert.assertEquals("Value for X2 should not change", EXPECTED_VALUEZ2, config.get("substitute.test.X2"));
+
+		// A runtime value with a reference follows later changes
+		config.setProperty("substitute.test.W", "${substitute.test.X}-${substitute.test.Z2}");
+		Assert.assertEquals("Runtime value should be substituted", "changedZ-valueZ2", config.get("substitute.test.W"));
+		config.addProperty("substitute.test.Z2", "more");
+		Assert.assertEquals("Runtime value should match added Z2 value", "changedZ-valueZ2,more", config.get("substitute.test.W"));
+
+		// Changing the references of a value
+		config.setProperty("substitute.test.Y", "${substitute.test.Z2}");
+		Assert.assertEquals("Value for X should match Z2 value", "valueZ2,more", config.get("substitute.test.X"));
+		config.setProperty("substitute.test.Z", "unused");
+		Assert.assertEquals("Value for X should not follow Z", "valueZ2,more", config.get("substitute.test.X"));
+
+		// Removing a value
+		config.clearProperty("substitute.test.Z2");
+		Assert.assertEquals("Removed value should not be substituted", "${substitute.test.Z2}", config.get("substitute.test.X"));
+	}
+
+	@Test
+	public void testAddPropertyKeepsReference() {
+		DefaultConfiguration config = new DefaultConfiguration("com/github/bordertech/config/DefaultConfigurationTestSubstitution.properties");
+		config.addProperty("substitute.test.Y", "more");
+		Assert.assertEquals("Value for Y should have the added value", "valueZ,more", config.get("substitute.test.Y"));
+		Assert.assertEquals("Value for X should have the added value", "valueZ,more", config.get("substitute.test.X"));
+
+		// The added value should still follow the value it refers to
+		config.setProperty("substitute.test.Z", "changedZ");
+		Assert.assertEquals("Value for Y should follow changed Z value", "changedZ,more", config.get("substitute.test.Y"));
+		Assert.assertEquals("Value for X should follow changed Z value", "changedZ,more", config.get("substitute.test.X"));
+	}
+
+	@Test
+	public void testLazySubstitution() throws Exception {
+		DefaultConfiguration eager = new DefaultConfiguration("com/github/bordertech/config/DefaultConfigurationTestSubstitution.properties");
+		AccessInitHelper.overrideLazySubstitution(true, false);
+		try {
+			DefaultConfiguration config = new DefaultConfiguration("com/github/bordertech/config/DefaultConfigurationTestSubstitution.properties");
+			Assert.assertEquals("Value for X should match Z value", EXPECTED_VALUEZ, config.get("substitute.test.X"));
+			Assert.assertEquals("Lazy substitution should give the same properties", eager.getProperties(), config.getProperties());
+
+			// Changing a value is seen by the values that refer to it
+			config.setProperty("substitute.test.Z2", "changedZ2");
+			Assert.assertEquals("Value for X2 should match changed Z2 value", "changedZ2", config.get("substitute.test.X2"));
+		} finally {
+			AccessInitHelper.overrideLazySubstitution(false, false);
+		}
+	}
+
+	@Test
+	public void testLazySubstitutionOnlyValuesRead() throws Exception {
+		AccessInitHelper.overrideLazySubstitution(true, false);
+		try {
+			DefaultConfiguration config = new DefaultConfiguration("com/github/bordertech/config/DefaultConfigurationTestSubstitution.properties");
+			ConfigurationSnapshot snapshot = config.getSnapshot();
+			Assert.assertFalse("Value should not be substituted by load", snapshot.isSubstituted("substitute.test.X"));
+
+			// Keys and prefix queries only substitute the values with the prefix
+			Assert.assertTrue("Keys should be found", config.getKeys("substitute.test.").hasNext());
+			Assert.assertFalse("Configuration should not be empty", config.isEmpty());
+			Assert.assertEquals("Incorrect prefixed value", EXPECTED_VALUEZ2, config.getSubProperties("substitute.test.X", false)
+					.getProperty("substitute.test.X2"));
+			Assert.assertTrue("Value with the prefix should be substituted", snapshot.isSubstituted("substitute.test.X2"));
+			Assert.assertFalse("Value without the prefix should not be substituted", snapshot.isSubstituted("substitute.test.Y"));
+		} finally {
+			AccessInitHelper.overrideLazySubstitution(false, false);
+		}
+	}
+
+	@Test
+	public void testLazySubstituteProfileSuffixKey() throws Exception {
+		AccessInitHelper.overrideLazySubstitution(true, false);
+		try {
+			DefaultConfiguration config = new DefaultConfiguration("com/github/bordertech/config/DefaultConfigurationTestSubstitutionProfileSuffix.properties");
+			Assert.assertEquals("Profile value was not substituted", "TEST", config.get(DefaultConfiguration.PROFILE_PROPERTY));
+			Assert.assertEquals("Property value with profile suffix not correct", "PROFILE_TEST", config.get("substitute.test.profile"));
+		} finally {
+			AccessInitHelper.overrideLazySubstitution(false, false);
+		}
+	}
+
 }
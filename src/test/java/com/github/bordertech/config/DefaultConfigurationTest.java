@@ -1,5 +1,6 @@
 package com.github.bordertech.config;
 
+import org.apache.commons.configuration.AbstractConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConversionException;
 import org.apache.commons.io.FileUtils;
@@ -8,15 +9,22 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.FileWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.github.bordertech.config.DefaultConfiguration.ENVIRONMENT_PROPERTY;
 import static com.github.bordertech.config.DefaultConfiguration.PROFILE_PROPERTY;
@@ -167,6 +175,63 @@ public class DefaultConfigurationTest {
 		assertPropertyEquals(key, "${keyDoesNotExist} with other details");
 	}
 
+	@Test
+	public void testSetProperties() {
+		List<Object> events = new ArrayList<>();
+		PropertyChangeListener listener = events::add;
+		Config.setConfiguration(config);
+		Config.addPropertyChangeListener(listener);
+		try {
+			Map<String, Object> values = new HashMap<>();
+			values.put(STRING_PROPERTY_KEY, "changedValue");
+			values.put(INT_PROPERTY_KEY, 456);
+			values.put("aNewPropertyKey", "${" + STRING_PROPERTY_KEY + "} with other details");
+			config.setProperties(values);
+
+			assertPropertyEquals(STRING_PROPERTY_KEY, "changedValue");
+			Assert.assertEquals("Incorrect int value", 456, config.getInt(INT_PROPERTY_KEY));
+			assertPropertyEquals("aNewPropertyKey", "changedValue with other details");
+			Assert.assertEquals("Listeners should be notified once", 1, events.size());
+		} finally {
+			Config.removePropertyChangeListener(listener);
+			Config.reset();
+		}
+	}
+
+	@Test
+	public void testSetPropertiesNotCurrentConfiguration() {
+		List<Object> events = new ArrayList<>();
+		PropertyChangeListener listener = events::add;
+		Config.addPropertyChangeListener(listener);
+		try {
+			config.setProperties(Collections.singletonMap(STRING_PROPERTY_KEY, "changedValue"));
+			assertPropertyEquals(STRING_PROPERTY_KEY, "changedValue");
+			Assert.assertTrue("Listeners should not be notified of another configuration", events.isEmpty());
+		} finally {
+			Config.removePropertyChangeListener(listener);
+		}
+	}
+
+	@Test
+	public void testSetPropertiesInvalidNotApplied() {
+		Map<String, Object> values = new LinkedHashMap<>();
+		values.put(STRING_PROPERTY_KEY, "changedValue");
+		values.put("", "x");
+		try {
+			config.setProperties(values);
+			Assert.fail("IllegalArgumentException expected for empty key");
+		} catch (IllegalArgumentException e) {
+			assertPropertyEquals(STRING_PROPERTY_KEY, "simplePropertyValue");
+		}
+	}
+
+	@Test
+	public void testSetPropertiesNotDirectives() {
+		config.setProperties(Collections.singletonMap(STRING_PROPERTY_KEY + "+", "added"));
+		assertPropertyEquals(STRING_PROPERTY_KEY, "simplePropertyValue");
+		assertPropertyEquals(STRING_PROPERTY_KEY + "+", "added");
+	}
+
 	@Test
 	public void testAddProperty() {
 		assertPropertyEquals(STRING_PROPERTY_KEY, "simplePropertyValue");
@@ -331,6 +396,26 @@ public class DefaultConfigurationTest {
 				valueOf(MISSING_PROPERTY_VAL)));
 	}
 
+	@Test
+	public void testGetConvertedValueChanges() {
+		String key = "converted.key";
+		config.setProperty(key, "1.25");
+		BigDecimal value = config.getBigDecimal(key);
+		Assert.assertEquals("Incorrect value", new BigDecimal("1.25"), value);
+		Assert.assertSame("Converted value should be cached", value, config.getBigDecimal(key));
+		Assert.assertEquals("Incorrect value", 1.25, config.getDouble(key), 0.0);
+		config.setProperty(key, "7");
+		Assert.assertEquals("Converted value should change with property", new BigDecimal("7"), config.getBigDecimal(key));
+		Assert.assertEquals("Converted value should change with property", 7, config.getInt(key));
+		config.setProperty(key, "invalid");
+		try {
+			config.getInt(key);
+			Assert.fail("Invalid value should not be converted");
+		} catch (ConversionException e) {
+			// Expected
+		}
+	}
+
 	@Test(expected = ConversionException.class)
 	public void testGetInvalidBigDecimal() {
 		config.getBigDecimal(STRING_PROPERTY_KEY);
@@ -472,6 +557,29 @@ public class DefaultConfigurationTest {
 	}
 
 
+	@Test
+	public void testRefreshReadersSeeCompleteProperties() throws Exception {
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicInteger missing = new AtomicInteger();
+		Thread reader = new Thread(() -> {
+			while (running.get()) {
+				if (config.getString(STRING_PROPERTY_KEY) == null) {
+					missing.incrementAndGet();
+				}
+			}
+		});
+		reader.start();
+		try {
+			for (int i = 0; i < 20; i++) {
+				config.refresh();
+			}
+		} finally {
+			running.set(false);
+			reader.join();
+		}
+		Assert.assertEquals("Readers should never see a partially loaded configuration", 0, missing.get());
+	}
+
 	@Test
 	public void testClear() {
 		Assert.assertFalse(config.isEmpty());
@@ -569,6 +677,32 @@ public class DefaultConfigurationTest {
 		Assert.assertEquals("test3", result[2]);
 	}
 
+	@Test
+	public void testGetStringArrayCopy() {
+		String key = "stringArrayCopyTest";
+		config.addProperty(key, "test1, test2");
+		String[] result = config.getStringArray(key);
+		result[0] = "changed";
+		Assert.assertEquals("Changing the returned array should not change the property", "test1", config.getStringArray(key)[0]);
+	}
+
+	@Test
+	public void testGetListShared() {
+		String key = "listSharedTest";
+		config.addProperty(key, "test1, test2");
+		List<Object> result = config.getList(key);
+		Assert.assertEquals(Arrays.asList("test1", "test2"), result);
+		Assert.assertSame("List should be cached", result, config.getList(key));
+		try {
+			result.set(0, "changed");
+			Assert.fail("List should not be modifiable");
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+		config.setProperty(key, "test3");
+		Assert.assertEquals("List should change with the property", Collections.singletonList("test3"), config.getList(key));
+	}
+
 	@Test
 	public void testGetProfileKey() {
 
@@ -693,6 +827,139 @@ public class DefaultConfigurationTest {
 		assertPropertyEquals("key3", "value3", props);
 	}
 
+	@Test
+	public void testSubsetLive() {
+		String prefix = "subsetLiveTest.";
+		config.addProperty(prefix + "key1", "value1");
+		Configuration subConfig = config.subset(prefix);
+		Assert.assertEquals("Incorrect subset value", "value1", subConfig.getString(prefix + "key1"));
+		Assert.assertFalse("Subset should not include other keys", subConfig.containsKey("simpleStringKey"));
+
+		config.addProperty(prefix + "key2", "value2");
+		Assert.assertEquals("Subset should reflect changes", "value2", subConfig.getString(prefix + "key2"));
+		List<String> keys = new ArrayList<>();
+		subConfig.getKeys().forEachRemaining(keys::add);
+		Assert.assertEquals("Incorrect subset keys", Arrays.asList(prefix + "key1", prefix + "key2"), keys);
+	}
+
+	@Test
+	public void testSubsetListSplitOnce() {
+		Configuration subConfig = config.subset("simple.");
+		Object list = subConfig.getProperty("simple.listPropertyKey");
+		Assert.assertEquals("Incorrect subset list", Arrays.asList("item1", "item2", "item3"), list);
+		Assert.assertSame("List should only be split once", list, subConfig.getProperty("simple.listPropertyKey"));
+
+		config.setProperty("simple.listPropertyKey", "item4,item5");
+		Assert.assertEquals("Subset list should reflect changes", Arrays.asList("item4", "item5"),
+				subConfig.getProperty("simple.listPropertyKey"));
+	}
+
+	@Test
+	public void testSubsetShared() {
+		String prefix = "subsetSharedTest.";
+		Configuration subConfig = config.subset(prefix);
+		Assert.assertSame("Subset should be shared", subConfig, config.subset(prefix));
+		config.addProperty(prefix + "key1", "value1");
+		Configuration changed = config.subset(prefix);
+		Assert.assertNotSame("Subset should be recreated when properties change", subConfig, changed);
+		Assert.assertEquals("Incorrect subset value", "value1", changed.getString(prefix + "key1"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSubsetSettingsReadOnly() {
+		((AbstractConfiguration) config.subset("simple")).setThrowExceptionOnMissing(true);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSubsetReadOnly() {
+		config.subset("simple").setProperty("simple.readOnly", "value");
+	}
+
+	@Test
+	public void testRefreshChangedFile() throws Exception {
+		File file = new File("./target/DefaultConfigRefreshTest.properties");
+		Properties props = new Properties();
+		props.setProperty("refresh.file.key", "value1");
+		try (FileWriter writer = new FileWriter(file)) {
+			props.store(writer, null);
+		}
+
+		DefaultConfiguration config = new DefaultConfiguration("target/DefaultConfigRefreshTest.properties");
+		Assert.assertEquals("Incorrect value loaded", "value1", config.getString("refresh.file.key"));
+
+		// Unchanged file
+		config.refresh();
+		Assert.assertEquals("Incorrect value after refresh", "value1", config.getString("refresh.file.key"));
+
+		// Changed file
+		props.setProperty("refresh.file.key", "value2 changed");
+		try (FileWriter writer = new FileWriter(file)) {
+			props.store(writer, null);
+		}
+		Assert.assertTrue(file.setLastModified(file.lastModified() + 5000));
+		config.refresh();
+		Assert.assertEquals("Changed value should be loaded", "value2 changed", config.getString("refresh.file.key"));
+	}
+
+	@Test
+	public void testParsedResourcesOnlyKeptWithTouchfile() throws Exception {
+		File file = new File("./target/DefaultConfigKeepResourcesTest.properties");
+		Properties props = new Properties();
+		props.setProperty("keep.file.key", "value1");
+		try (FileWriter writer = new FileWriter(file)) {
+			props.store(writer, null);
+		}
+
+		DefaultConfiguration config = new DefaultConfiguration("target/DefaultConfigKeepResourcesTest.properties");
+		Assert.assertFalse("Resources should be loaded", config.getLoadedResources().isEmpty());
+		for (LoadedResource resource : config.getLoadedResources().values()) {
+			Assert.assertNull("Parsed entries should not be kept without a touchfile", resource.getEntries());
+		}
+
+		props.setProperty("bordertech.config.touchfile", "target/DefaultConfigKeepResourcesTest.touch");
+		try (FileWriter writer = new FileWriter(file)) {
+			props.store(writer, null);
+		}
+		config = new DefaultConfiguration("target/DefaultConfigKeepResourcesTest.properties");
+		for (LoadedResource resource : config.getLoadedResources().values()) {
+			Assert.assertNotNull("Parsed entries should be kept with a touchfile", resource.getEntries());
+		}
+		config.refresh();
+		Assert.assertEquals("Incorrect value after refresh", "value1", config.getString("keep.file.key"));
+	}
+
+	@Test
+	public void testLoadParallel() throws Exception {
+		AccessInitHelper.overrideLoadParallel(true, false);
+		try {
+			DefaultConfiguration parallel = new DefaultConfiguration(
+				"com/github/bordertech/config/DefaultConfigurationTest.properties");
+			Assert.assertEquals("Parallel load should load the same properties", config.getProperties(), parallel.getProperties());
+
+			// Refresh also reads in parallel
+			parallel.refresh();
+			Assert.assertEquals("Parallel refresh should load the same properties", config.getProperties(), parallel.getProperties());
+		} finally {
+			AccessInitHelper.overrideLoadParallel(false, false);
+		}
+	}
+
+	@Test
+	public void testLoadLeanMode() throws Exception {
+		AccessInitHelper.overrideLeanMode(true, false);
+		try {
+			DefaultConfiguration lean = new DefaultConfiguration(
+				"com/github/bordertech/config/DefaultConfigurationTest.properties");
+			Assert.assertEquals("Lean mode should load the same properties", config.getProperties(), lean.getProperties());
+
+			// The parsed resources are dropped, so a refresh reads them again
+			lean.refresh();
+			Assert.assertEquals("Lean mode refresh should load the same properties", config.getProperties(), lean.getProperties());
+		} finally {
+			AccessInitHelper.overrideLeanMode(false, false);
+		}
+	}
+
 	@Test
 	public void testLoadWithPhysicalFile() throws Exception {
 
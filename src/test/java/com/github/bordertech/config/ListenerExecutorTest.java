@@ -0,0 +1,144 @@
+package com.github.bordertech.config;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ListenerExecutor}.
+ */
+public class ListenerExecutorTest {
+
+	@Test
+	public void testEventsInOrder() {
+		ListenerExecutor executor = new ListenerExecutor(4);
+		final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+		PropertyChangeListener listener = evt -> received.add(evt.getNewValue());
+
+		List<Object> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			expected.add(i);
+			// A different property each time, so the events are not coalesced
+			executor.dispatch(listener, new PropertyChangeEvent(this, "key" + i, null, i));
+		}
+
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> received.size() == expected.size());
+		Assert.assertEquals("Events should be received in order", expected, received);
+	}
+
+	@Test
+	public void testSlowListenerDoesNotBlock() throws Exception {
+		ListenerExecutor executor = new ListenerExecutor(2);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch fastNotified = new CountDownLatch(1);
+		PropertyChangeListener slow = evt -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		// Dispatch returns straight away
+		executor.dispatch(slow, createEvent(1));
+		executor.dispatch(slow, createEvent(2));
+		executor.dispatch(evt -> fastNotified.countDown(), createEvent(3));
+
+		Assert.assertTrue("Other listeners should be notified", fastNotified.await(5, TimeUnit.SECONDS));
+		release.countDown();
+	}
+
+	@Test
+	public void testWaitingEventsCoalesced() throws Exception {
+		ListenerExecutor executor = new ListenerExecutor(2);
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<PropertyChangeEvent> received = Collections.synchronizedList(new ArrayList<>());
+		PropertyChangeListener slow = evt -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.add(evt);
+		};
+
+		executor.dispatch(slow, new PropertyChangeEvent(this, "key", -1, 0));
+		for (int i = 1; i <= 1000; i++) {
+			executor.dispatch(slow, new PropertyChangeEvent(this, "key", i - 1, i));
+			executor.dispatch(slow, new PropertyChangeEvent(this, "other", null, i));
+		}
+		release.countDown();
+
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 3);
+		Thread.sleep(100);
+		Assert.assertEquals("Waiting events should be coalesced", 3, received.size());
+		Assert.assertEquals("Incorrect event being notified", 0, received.get(0).getNewValue());
+		PropertyChangeEvent key = received.get(1);
+		Assert.assertEquals("Incorrect coalesced property", "key", key.getPropertyName());
+		Assert.assertEquals("Coalesced event should keep the first old value", 0, key.getOldValue());
+		Assert.assertEquals("Coalesced event should have the latest new value", 1000, key.getNewValue());
+		Assert.assertEquals("Incorrect coalesced other property", 1000, received.get(2).getNewValue());
+	}
+
+	@Test
+	public void testChangedBackEventDropped() throws Exception {
+		ListenerExecutor executor = new ListenerExecutor(2);
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<PropertyChangeEvent> received = Collections.synchronizedList(new ArrayList<>());
+		PropertyChangeListener slow = evt -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.add(evt);
+		};
+
+		executor.dispatch(slow, new PropertyChangeEvent(this, "other", null, 0));
+		// Changed from A to B and back to A while waiting
+		executor.dispatch(slow, new PropertyChangeEvent(this, "key", "A", "B"));
+		executor.dispatch(slow, new PropertyChangeEvent(this, "key", "B", "A"));
+		executor.dispatch(slow, new PropertyChangeEvent(this, "other", 0, 1));
+		release.countDown();
+
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 2);
+		Thread.sleep(100);
+		Assert.assertEquals("Changed back event should be dropped", 2, received.size());
+		Assert.assertEquals("Incorrect event being notified", "other", received.get(0).getPropertyName());
+		Assert.assertEquals("Incorrect waiting event", 1, received.get(1).getNewValue());
+	}
+
+	@Test
+	public void testNoThreadsUsesOneThread() {
+		ListenerExecutor executor = new ListenerExecutor(0);
+		final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+		executor.dispatch(evt -> received.add(evt.getNewValue()), createEvent(1));
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 1);
+	}
+
+	@Test
+	public void testListenerErrorContinues() {
+		ListenerExecutor executor = new ListenerExecutor(Runnable::run);
+		final List<Object> received = new ArrayList<>();
+		PropertyChangeListener listener = evt -> {
+			received.add(evt.getNewValue());
+			throw new IllegalStateException("Listener failed");
+		};
+
+		executor.dispatch(listener, createEvent(1));
+		executor.dispatch(listener, createEvent(2));
+		Assert.assertEquals("Listener should receive all events", 2, received.size());
+	}
+
+	private PropertyChangeEvent createEvent(final int value) {
+		return new PropertyChangeEvent(this, "key", null, value);
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.github.bordertech.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LoadedResource}.
+ */
+public class LoadedResourceTest {
+
+	private static final byte[] CONTENT = "b=1\na=2\nb+=3\n".getBytes(StandardCharsets.ISO_8859_1);
+
+	@Test
+	public void testEntriesInOrder() throws Exception {
+		LoadedResource resource = LoadedResource.create(CONTENT, CONTENT.length, 1000, null);
+		Assert.assertEquals("Entries should be in resource order",
+				Arrays.asList(new ImmutablePair<>("b", "1"), new ImmutablePair<>("a", "2"), new ImmutablePair<>("b+", "3")),
+				resource.getEntries());
+	}
+
+	@Test
+	public void testUnchangedContentEntriesKept() throws Exception {
+		LoadedResource previous = LoadedResource.create(CONTENT, CONTENT.length, 1000, null);
+		LoadedResource resource = LoadedResource.create(CONTENT.clone(), CONTENT.length, 2000, previous);
+		Assert.assertSame("Entries should be reused", previous.getEntries(), resource.getEntries());
+		Assert.assertTrue("Content should be the same", previous.isSameContent(resource));
+
+		byte[] changed = "a=2\n".getBytes(StandardCharsets.ISO_8859_1);
+		LoadedResource changedResource = LoadedResource.create(changed, changed.length, 3000, previous);
+		Assert.assertFalse("Content should change", previous.isSameContent(changedResource));
+		Assert.assertEquals("Changed content should be parsed", 1, changedResource.getEntries().size());
+	}
+
+	@Test
+	public void testReadSameContent() throws Exception {
+		LoadedResource first = LoadedResource.read(null, () -> new ByteArrayInputStream(CONTENT), null);
+		LoadedResource second = LoadedResource.read(null, () -> new ByteArrayInputStream(CONTENT.clone()), null);
+		Assert.assertTrue("Content should be the same", first.isSameContent(second));
+		Assert.assertEquals("Incorrect entries read", 3, first.getEntries().size());
+
+		// Same length, different content
+		byte[] other = "b=1\na=2\nb+=4\n".getBytes(StandardCharsets.ISO_8859_1);
+		LoadedResource different = LoadedResource.read(null, () -> new ByteArrayInputStream(other), null);
+		Assert.assertFalse("Content should be different", first.isSameContent(different));
+		Assert.assertFalse("Null should be different", first.isSameContent(null));
+	}
+
+	@Test
+	public void testUnchangedStreamNotParsed() throws Exception {
+		AtomicInteger opens = new AtomicInteger();
+		LoadedResource previous = LoadedResource.read(null, () -> new ByteArrayInputStream(CONTENT), null);
+
+		// The digest is checked before parsing, so unchanged content is only read once
+		LoadedResource unchanged = LoadedResource.read(null, () -> {
+			opens.incrementAndGet();
+			return new ByteArrayInputStream(CONTENT.clone());
+		}, previous);
+		Assert.assertEquals("Unchanged content should only be read once", 1, opens.get());
+		Assert.assertSame("Entries should be reused", previous.getEntries(), unchanged.getEntries());
+
+		// Changed content is read again to parse it
+		opens.set(0);
+		byte[] other = "b=1\na=2\nb+=4\n".getBytes(StandardCharsets.ISO_8859_1);
+		LoadedResource changed = LoadedResource.read(null, () -> {
+			opens.incrementAndGet();
+			return new ByteArrayInputStream(other);
+		}, unchanged);
+		Assert.assertEquals("Changed content should be read again to parse it", 2, opens.get());
+		Assert.assertEquals("Incorrect changed entry", new ImmutablePair<>("b+", "4"), changed.getEntries().get(2));
+
+		// Without previous entries the content is read and parsed at once
+		opens.set(0);
+		LoadedResource.read(null, () -> {
+			opens.incrementAndGet();
+			return new ByteArrayInputStream(CONTENT);
+		}, previous.withoutEntries());
+		Assert.assertEquals("Content should be read once without previous entries", 1, opens.get());
+	}
+
+	@Test
+	public void testReadFile() throws Exception {
+		File file = File.createTempFile("testLoadedResource", ".properties");
+		file.deleteOnExit();
+		Files.write(file.toPath(), CONTENT);
+		Assert.assertTrue("Could not set file time", file.setLastModified(System.currentTimeMillis() - 60000));
+
+		// The file is read via its channel rather than the opener
+		LoadedResource resource = LoadedResource.read(file, null, null);
+		Assert.assertEquals("Incorrect entries read from file", LoadedResource.create(CONTENT, -1, 0, null).getEntries(),
+				resource.getEntries());
+		Assert.assertSame("Unchanged file should not be read", resource, LoadedResource.read(file, null, resource));
+
+		// Without its entries the file is read again, and the entries are not reused
+		LoadedResource lean = resource.withoutEntries();
+		Assert.assertNull("Entries should be dropped", lean.getEntries());
+		LoadedResource reread = LoadedResource.read(file, null, lean);
+		Assert.assertNotSame("File should be read again", lean, reread);
+		Assert.assertEquals("Incorrect entries read again", resource.getEntries(), reread.getEntries());
+		Assert.assertTrue("Content should be the same", lean.isSameContent(reread));
+	}
+
+	@Test
+	public void testRecentlyModifiedFileChecked() throws Exception {
+		File file = File.createTempFile("testLoadedResourceRecent", ".properties");
+		file.deleteOnExit();
+		Files.write(file.toPath(), CONTENT);
+		long modified = file.lastModified();
+
+		LoadedResource resource = LoadedResource.read(file, null, null);
+
+		// Same size edit that keeps the same last modified time, as if made within the file system granularity
+		byte[] edited = "b=1\na=2\nb+=4\n".getBytes(StandardCharsets.ISO_8859_1);
+		Files.write(file.toPath(), edited);
+		Assert.assertTrue("Could not set file time", file.setLastModified(modified));
+
+		LoadedResource changed = LoadedResource.read(file, null, resource);
+		Assert.assertNotSame("Recently modified file should be read again", resource, changed);
+		Assert.assertFalse("Content should be changed", resource.isSameContent(changed));
+		Assert.assertEquals("Incorrect changed entry", new ImmutablePair<>("b+", "4"), changed.getEntries().get(2));
+	}
+
+	@Test
+	public void testReadLargeFile() throws Exception {
+		File file = File.createTempFile("testLoadedResourceLarge", ".properties");
+		file.deleteOnExit();
+		StringBuilder content = new StringBuilder();
+		int count = 0;
+		while (content.length() < 4 * 1024 * 1024) {
+			content.append("large.key.").append(count).append("=value\\u00e9").append(count).append('\n');
+			count++;
+		}
+		Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+		LoadedResource resource = LoadedResource.read(file, null, null);
+		Assert.assertEquals("Incorrect number of entries read from large file", count, resource.getEntries().size());
+		Assert.assertEquals("Incorrect last entry read from large file",
+				new ImmutablePair<>("large.key." + (count - 1), "value\u00e9" + (count - 1)),
+				resource.getEntries().get(count - 1));
+
+		// The file is not held open or mapped once read, so it can be changed and deleted
+		Files.write(file.toPath(), CONTENT);
+		Assert.assertEquals("Incorrect entries read from changed file", 3, LoadedResource.read(file, null, null).getEntries().size());
+		Files.delete(file.toPath());
+	}
+
+	@Test
+	public void testIsUnchanged() throws Exception {
+		LoadedResource resource = LoadedResource.create(CONTENT, CONTENT.length, 1000, null);
+		Assert.assertTrue("Same size and time should be unchanged", resource.isUnchanged(CONTENT.length, 1000));
+		Assert.assertFalse("Different time should be changed", resource.isUnchanged(CONTENT.length, 2000));
+		Assert.assertFalse("Different size should be changed", resource.isUnchanged(1, 1000));
+
+		LoadedResource unknown = LoadedResource.create(CONTENT, -1, 0, null);
+		Assert.assertFalse("Unknown time should be changed", unknown.isUnchanged(-1, 0));
+
+		long now = System.currentTimeMillis();
+		LoadedResource recent = LoadedResource.create(CONTENT, CONTENT.length, now, null);
+		Assert.assertFalse("Time within the granularity of the read should be changed", recent.isUnchanged(CONTENT.length, now));
+	}
+
+}
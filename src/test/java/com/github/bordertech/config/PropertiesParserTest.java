@@ -0,0 +1,149 @@
+package com.github.bordertech.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PropertiesParser}. The entries parsed are checked against {@link Properties#load}.
+ */
+public class PropertiesParserTest {
+
+	@Test
+	public void testSimple() throws Exception {
+		assertParsedSame("a=1\nb:2\nc 3\nd\n");
+	}
+
+	@Test
+	public void testSeparatorsAndWhiteSpace() throws Exception {
+		assertParsedSame("  a  =  1  \n\tb\t:\t2\nc = = 3\nd :=4\ne\f5\nf  \ng=\n");
+	}
+
+	@Test
+	public void testComments() throws Exception {
+		assertParsedSame("# comment\n! comment\n  # indented comment\na=1 # not a comment\n#c=3\\\nb=2\n");
+	}
+
+	@Test
+	public void testBlankLines() throws Exception {
+		assertParsedSame("\n\n   \n\t\na=1\n\n\nb=2");
+	}
+
+	@Test
+	public void testLineEndings() throws Exception {
+		assertParsedSame("a=1\r\nb=2\rc=3\n\rd=4\r\n\r\ne=5");
+	}
+
+	@Test
+	public void testContinuations() throws Exception {
+		assertParsedSame("a=1,\\\n    2,\\\r\n\t3\nb=x\\\\\nc=y\\\\\\\n  z\nd=\\\n\ne=\\\n# not a comment\n");
+	}
+
+	@Test
+	public void testContinuationAtEnd() throws Exception {
+		assertParsedSame("a=1\\");
+		assertParsedSame("a=1\\\n");
+		assertParsedSame("a=1\n\\\n");
+	}
+
+	@Test
+	public void testEscapes() throws Exception {
+		assertParsedSame("a\\=b=1\\t2\\n3\\r4\\f5\\\\6\\q\na\\ b=\\u00e9\\u0041\\uABCD\nk\\:e\\ y : v\\\\\n");
+	}
+
+	@Test
+	public void testLatin1() throws Exception {
+		assertParsedSame("caf\u00e9=na\u00efve\u00ff\n");
+	}
+
+	@Test
+	public void testExtensions() throws Exception {
+		assertParsedSame("include=a.properties\nincludeAfter=b.properties\nkey+=1\nkey += 2\nkey+ 3\n");
+		Assert.assertEquals("Incorrect append entries",
+				Arrays.asList(new ImmutablePair<>("key+", "1"), new ImmutablePair<>("key", "+= 2"), new ImmutablePair<>("key+", "3")),
+				parse("key+=1\nkey += 2\nkey+ 3\n"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMalformedUnicode() throws Exception {
+		parse("a=\\u00zz\n");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncatedUnicode() throws Exception {
+		parse("a=\\u00\n");
+	}
+
+	@Test
+	public void testLongLine() throws Exception {
+		StringBuilder line = new StringBuilder("long=");
+		for (int i = 0; i < 1000; i++) {
+			line.append("value\\u0020").append(i).append(",\\\n  ");
+		}
+		assertParsedSame(line.append("end\n").toString());
+	}
+
+	@Test
+	public void testStreamReadInSmallParts() throws Exception {
+		String content = "a=1\r\nb=\\\r\n  2\rc=\\u0041\n";
+		// The stream only returns one byte at a time, so every line ending and escape crosses a read
+		InputStream in = new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1)) {
+			@Override
+			public synchronized int read(final byte[] b, final int off, final int len) {
+				return super.read(b, off, Math.min(len, 1));
+			}
+		};
+		List<Pair<String, String>> entries = new ArrayList<>();
+		PropertiesParser.parse(in, (key, value) -> entries.add(new ImmutablePair<>(key, value)));
+		Assert.assertEquals("Incorrect entries parsed from small reads", parse(content), entries);
+		assertParsedSame(content);
+	}
+
+	@Test
+	public void testLargeContent() throws Exception {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			content.append("key").append(i).append(" = value\\\r\n\t").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+		}
+		assertParsedSame(content.toString());
+	}
+
+	/**
+	 * @param content the properties content
+	 * @return the entries parsed by the parser
+	 * @throws IOException an IO Exception occurred
+	 */
+	private static List<Pair<String, String>> parse(final String content) throws IOException {
+		List<Pair<String, String>> entries = new ArrayList<>();
+		PropertiesParser.parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1)),
+				(key, value) -> entries.add(new ImmutablePair<>(key, value)));
+		return entries;
+	}
+
+	/**
+	 * @param content the properties content
+	 * @throws IOException an IO Exception occurred
+	 */
+	private static void assertParsedSame(final String content) throws IOException {
+		List<Pair<String, String>> expected = new ArrayList<>();
+		Properties properties = new Properties() {
+			@Override
+			public synchronized Object put(final Object key, final Object value) {
+				expected.add(new ImmutablePair<>((String) key, (String) value));
+				return null;
+			}
+		};
+		properties.load(new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1)));
+		Assert.assertEquals("Incorrect entries parsed from [" + content + "]", expected, parse(content));
+	}
+
+}
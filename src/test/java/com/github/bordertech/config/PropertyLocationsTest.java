@@ -0,0 +1,59 @@
+package com.github.bordertech.config;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PropertyLocations}.
+ */
+public class PropertyLocationsTest {
+
+	@Test
+	public void testHistoryInReverseOrder() {
+		PropertyLocations locations = new PropertyLocations();
+		locations.add("a", "file1");
+		locations.add("b", "file1");
+		locations.add("a", "file2");
+		locations.add("a", "file1");
+
+		Assert.assertEquals("Incorrect history for a", "file1; file2; file1", locations.getHistory("a"));
+		Assert.assertEquals("Incorrect history for b", "file1", locations.getHistory("b"));
+		Assert.assertNull("Unknown key should have no history", locations.getHistory("c"));
+	}
+
+	@Test
+	public void testRepeatedLocationKeptOnce() {
+		PropertyLocations locations = new PropertyLocations();
+		locations.add("a", "file1");
+		locations.add("a", "runtime");
+		locations.add("a", "runtime");
+		locations.add("a", "file1");
+		locations.add("a", "file1");
+
+		Assert.assertEquals("Repeated location should be kept once", "file1; runtime; file1", locations.getHistory("a"));
+	}
+
+	@Test
+	public void testSubstitutionKeepsTemplate() {
+		PropertyLocations locations = new PropertyLocations();
+		locations.add("a", "file1");
+		locations.addSubstitution("a", "${b}x");
+		locations.add("c", "file1");
+		locations.addSubstitution("c", "${d}");
+
+		Assert.assertEquals("Incorrect history for a", "substitution of ${${b}x}; file1", locations.getHistory("a"));
+		Assert.assertEquals("Incorrect history for c", "substitution of ${${d}}; file1", locations.getHistory("c"));
+	}
+
+	@Test
+	public void testClear() {
+		PropertyLocations locations = new PropertyLocations();
+		locations.add("a", "file1");
+		locations.clear();
+		Assert.assertNull("History should be cleared", locations.getHistory("a"));
+
+		locations.add("a", "file2");
+		Assert.assertEquals("Incorrect history after clear", "file2", locations.getHistory("a"));
+	}
+
+}
@@ -0,0 +1,210 @@
+package com.github.bordertech.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.text.StringSubstitutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PropertySubstitutor}. The substituted values are checked against {@link StringSubstitutor}.
+ */
+public class PropertySubstitutorTest {
+
+	@Test
+	public void testSimpleAndChained() {
+		assertSubstitutedSame(map("a", "1", "b", "${a}+${a}", "c", "${b}-${d}", "d", "x${a}y"));
+	}
+
+	@Test
+	public void testMissingAndDefault() {
+		assertSubstitutedSame(map("a", "${missing}", "b", "${missing:-def}", "c", "${a:-def}", "d", "${:-}${}"));
+	}
+
+	@Test
+	public void testEscapes() {
+		assertSubstitutedSame(map("a", "$${b}", "b", "1", "c", "$$${b}", "d", "${e}$${b}", "e", "$", "f", "${missing:-$${b}"));
+	}
+
+	@Test
+	public void testEscapeAfterResolvedValue() {
+		// The value of e ends with the escape, so the reference to b after it is not substituted
+		assertSubstitutedSame(map("b", "1", "e", "x$", "g", "${e}${b}", "h", "${missing:-$}${b}"));
+	}
+
+	@Test
+	public void testUnterminatedAndNested() {
+		assertSubstitutedSame(map("a", "${b", "b", "1", "c", "${a${b}}", "d", "${b}}{", "e", "${${b}"));
+	}
+
+	@Test
+	public void testOnlyChangedReturned() {
+		PropertySubstitutor substitutor = new PropertySubstitutor(map("a", "1", "b", "${a}", "c", "${missing}"));
+		Assert.assertEquals("Only changed values should be returned", Collections.singletonMap("b", "1"), substitutor.substitute());
+		Assert.assertTrue("There should be no cyclic keys", substitutor.getCyclicKeys().isEmpty());
+	}
+
+	@Test
+	public void testResolveOnDemand() {
+		PropertySubstitutor substitutor = new PropertySubstitutor(map("a", "1", "b", "${a}", "c", "${b}${b}", "d", "${d}"));
+		Assert.assertEquals("Incorrect resolved value", "11", substitutor.resolve("c"));
+		Assert.assertEquals("Incorrect plain value", "1", substitutor.resolve("a"));
+		Assert.assertNull("Missing key should resolve to null", substitutor.resolve("missing"));
+		Assert.assertTrue("Cycle should not be found until resolved", substitutor.getCyclicKeys().isEmpty());
+		Assert.assertEquals("Value in a cycle should not be substituted", "${d}", substitutor.resolve("d"));
+		Assert.assertEquals("Incorrect cyclic keys", Collections.singleton("d"), substitutor.getCyclicKeys());
+	}
+
+	@Test
+	public void testCycles() {
+		Map<String, String> values = map("self", "${self}", "a", "${b}", "b", "${c}", "c", "${a}", "d", "x${a}", "e", "1", "f", "${e}");
+		PropertySubstitutor substitutor = new PropertySubstitutor(values);
+		Map<String, String> changed = substitutor.substitute();
+		Assert.assertEquals("Incorrect cyclic keys", new HashSet<>(Arrays.asList("self", "a", "b", "c", "d")), substitutor.getCyclicKeys());
+		Assert.assertEquals("Values not in a cycle should be substituted", Collections.singletonMap("f", "1"), changed);
+	}
+
+	@Test
+	public void testLongChain() {
+		Map<String, String> values = new HashMap<>();
+		values.put("key0", "value");
+		for (int i = 1; i < 20000; i++) {
+			values.put("key" + i, "${key" + (i - 1) + "}");
+		}
+		Map<String, String> changed = new PropertySubstitutor(values).substitute();
+		Assert.assertEquals("Incorrect end of chain", "value", changed.get("key19999"));
+	}
+
+	@Test
+	public void testRandomValues() {
+		Random random = new Random(42);
+		String[] tokens = {"$", "{", "}", "${", "a", "b", "c", ":-", "x", ":", "-", "$$"};
+		for (int run = 0; run < 2000; run++) {
+			Map<String, String> values = new HashMap<>();
+			for (String key : new String[]{"a", "b", "c", "x", ""}) {
+				if (random.nextInt(4) > 0) {
+					StringBuilder value = new StringBuilder();
+					int length = random.nextInt(10);
+					for (int i = 0; i < length; i++) {
+						value.append(tokens[random.nextInt(tokens.length)]);
+					}
+					values.put(key, value.toString());
+				}
+			}
+			assertSubstitutedSame(values);
+		}
+	}
+
+	@Test
+	public void testUpdateResolvesDependents() {
+		PropertySubstitutor substitutor = new PropertySubstitutor(map("a", "1", "b", "${a}", "c", "${b}-${d}", "d", "x", "e", "${d}"));
+		substitutor.substitute();
+		Map<String, String> updated = substitutor.update(Collections.singletonMap("a", "2"));
+		Assert.assertEquals("Only the changed value and its dependents should be resolved", map("a", "2", "b", "2", "c", "2-x"), updated);
+		Assert.assertEquals("Unchanged value should be kept", "x", substitutor.resolve("e"));
+		Assert.assertEquals("Value before substitution should be kept", "${b}-${d}", substitutor.getValue("c"));
+	}
+
+	@Test
+	public void testUpdateChangesReferences() {
+		PropertySubstitutor substitutor = new PropertySubstitutor(map("a", "1", "b", "${a}", "c", "3"));
+		substitutor.substitute();
+		Assert.assertEquals("Incorrect changed references", Collections.singletonMap("b", "3"),
+				substitutor.update(Collections.singletonMap("b", "${c}")));
+		Assert.assertEquals("Value no longer referred to should not have dependents", Collections.singletonMap("a", "4"),
+				substitutor.update(Collections.singletonMap("a", "4")));
+		Assert.assertEquals("Removed value should not be substituted", map("c", null, "b", "${c}"),
+				substitutor.update(Collections.singletonMap("c", null)));
+	}
+
+	@Test
+	public void testUpdateCycles() {
+		PropertySubstitutor substitutor = new PropertySubstitutor(map("a", "${b}", "b", "${a}", "c", "${a}"));
+		substitutor.substitute();
+		Assert.assertEquals("Incorrect cyclic keys", new HashSet<>(Arrays.asList("a", "b", "c")), substitutor.getCyclicKeys());
+		Assert.assertEquals("Breaking the cycle should resolve the values", map("b", "1", "a", "1", "c", "1"),
+				substitutor.update(Collections.singletonMap("b", "1")));
+		Assert.assertTrue("There should be no cyclic keys", substitutor.getCyclicKeys().isEmpty());
+		substitutor.update(Collections.singletonMap("b", "${c}"));
+		Assert.assertEquals("Incorrect cyclic keys", new HashSet<>(Arrays.asList("a", "b", "c")), substitutor.getCyclicKeys());
+	}
+
+	@Test
+	public void testRandomUpdates() {
+		Random random = new Random(42);
+		String[] keys = {"a", "b", "c", "x"};
+		String[] tokens = {"$", "{", "}", "${", "a", "b", "c", ":-", "x", "$$", "${a}", "${b}", "${c}", "${x}"};
+		for (int run = 0; run < 1000; run++) {
+			Map<String, String> values = new HashMap<>();
+			PropertySubstitutor substitutor = new PropertySubstitutor(new HashMap<>(values));
+			substitutor.substitute();
+			for (int change = 0; change < 5; change++) {
+				String key = keys[random.nextInt(keys.length)];
+				String value = null;
+				if (random.nextInt(4) > 0) {
+					StringBuilder builder = new StringBuilder();
+					int length = random.nextInt(5);
+					for (int i = 0; i < length; i++) {
+						builder.append(tokens[random.nextInt(tokens.length)]);
+					}
+					value = builder.toString();
+					values.put(key, value);
+				} else {
+					values.remove(key);
+				}
+				substitutor.update(Collections.singletonMap(key, value));
+
+				// The same as substituting all the values again
+				PropertySubstitutor expected = new PropertySubstitutor(values);
+				for (String check : keys) {
+					Assert.assertEquals("Incorrect value for key [" + check + "] in " + values, expected.resolve(check),
+							substitutor.resolve(check));
+				}
+				Assert.assertEquals("Incorrect cyclic keys in " + values, expected.getCyclicKeys(), substitutor.getCyclicKeys());
+			}
+		}
+	}
+
+	/**
+	 * @param keysAndValues the keys and values
+	 * @return the map of the keys and values
+	 */
+	private static Map<String, String> map(final String... keysAndValues) {
+		Map<String, String> values = new HashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			values.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return values;
+	}
+
+	/**
+	 * Check each value is substituted the same as {@link StringSubstitutor}, or is reported as cyclic if
+	 * {@link StringSubstitutor} detects a cycle.
+	 *
+	 * @param values the values to substitute
+	 */
+	private static void assertSubstitutedSame(final Map<String, String> values) {
+		PropertySubstitutor substitutor = new PropertySubstitutor(values);
+		Map<String, String> changed = substitutor.substitute();
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			String key = entry.getKey();
+			String expected;
+			try {
+				expected = StringSubstitutor.replace(entry.getValue(), values);
+			} catch (IllegalStateException e) {
+				Assert.assertTrue("Key [" + key + "] should be cyclic in " + values, substitutor.getCyclicKeys().contains(key));
+				continue;
+			}
+			Assert.assertFalse("Key [" + key + "] should not be cyclic in " + values, substitutor.getCyclicKeys().contains(key));
+			Assert.assertEquals("Incorrect value for key [" + key + "] in " + values, expected, changed.getOrDefault(key, entry.getValue()));
+			// Resolving the key on its own gives the same value
+			Assert.assertEquals("Incorrect resolved value for key [" + key + "] in " + values, expected,
+					new PropertySubstitutor(values).resolve(key));
+		}
+	}
+
+}
@@ -3,6 +3,16 @@ package com.github.bordertech.config;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.awaitility.Awaitility;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -114,6 +124,102 @@ public class TouchfileTest {
 		}
 	}
 
+	@Test
+	public void testFileChangeReportedOnce() throws Exception {
+		File file = File.createTempFile("testTouch3", ".tmp");
+		long modified = file.lastModified();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Touchfile touch = new Touchfile(file.getAbsolutePath(), 0);
+			sleepThread(FILE_UPDATE_INT);
+			try (FileWriter fw = new FileWriter(file, true)) {
+				fw.write("Update content.");
+			}
+			if (modified == file.lastModified()) {
+				Assert.fail("Touching the file did not change the last modified");
+			}
+			// Check the file from several threads at the same time
+			List<Callable<Boolean>> checks = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				checks.add(touch::hasChanged);
+			}
+			int changed = 0;
+			for (Future<Boolean> result : executor.invokeAll(checks)) {
+				if (result.get()) {
+					changed++;
+				}
+			}
+			Assert.assertEquals("Change should only be reported once", 1, changed);
+		} finally {
+			executor.shutdown();
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testWatchFileChanges() throws IOException {
+		File file = File.createTempFile("testTouch4", ".tmp");
+		long modified = file.lastModified();
+		AtomicInteger changes = new AtomicInteger();
+		Touchfile touch = new Touchfile(file.getAbsolutePath(), FILE_UPDATE_INT);
+		try {
+			touch.watch(changes::incrementAndGet);
+			Assert.assertTrue("Touchfile should be watched", touch.isWatching());
+			sleepThread(FILE_UPDATE_INT);
+			try (FileWriter fw = new FileWriter(file, true)) {
+				fw.write("Update content.");
+			}
+			if (modified == file.lastModified()) {
+				Assert.fail("Touching the file did not change the last modified");
+			}
+			Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> changes.get() == 1);
+			Assert.assertEquals("Updated file last modified should match file", file.lastModified(), touch.getLastModified());
+		} finally {
+			touch.stop();
+			file.delete();
+		}
+		Assert.assertFalse("Touchfile should not be watched after stop", touch.isWatching());
+	}
+
+	@Test
+	public void testWatchCheckedWhileOtherFilesChange() throws Exception {
+		File dir = Files.createTempDirectory("testTouchDir").toFile();
+		File file = new File(dir, "touch.tmp");
+		File other = new File(dir, "other.tmp");
+		Touchfile touch = new Touchfile(file.getAbsolutePath(), 100);
+		try {
+			touch.watch(() -> {
+			});
+			long checked = touch.getLastChecked();
+			// Keep another file in the directory changing so the watch service always has an event
+			long end = System.currentTimeMillis() + FILE_UPDATE_INT;
+			while (System.currentTimeMillis() < end) {
+				try (FileWriter fw = new FileWriter(other, true)) {
+					fw.write("x");
+				}
+				sleepThread(5);
+			}
+			Assert.assertTrue("Touchfile should be checked every interval while other files change", touch.getLastChecked() > checked);
+		} finally {
+			touch.stop();
+			other.delete();
+			dir.delete();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWatchTwice() {
+		Touchfile touch = new Touchfile("notexist.properties", DEFAULT_CHECK);
+		try {
+			touch.watch(() -> {
+			});
+			touch.watch(() -> {
+			});
+		} finally {
+			touch.stop();
+		}
+	}
+
 	private void sleepThread(final long interval) {
 		try {
 			// Sleep thread long enough for the file modified timestamp to be different